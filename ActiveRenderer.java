@@ -0,0 +1,106 @@
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+
+// Активная отрисовка: собственный поток рисует последний снимок мира в Canvas
+// через BufferStrategy, не дожидаясь, когда Swing решит перерисовать панель
+public class ActiveRenderer implements Runnable {
+    private static final int FRAME_CAP = Integer.getInteger("tankwar.fps", 60);
+    private static final int BUFFER_COUNT = Math.min(Math.max(Integer.getInteger("tankwar.buffers", 3), 2), 3);
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final long IDLE_SLEEP_MS = 50;
+
+    private final Canvas canvas;
+    private final GameView view;
+    private final long frameNanos;
+    private volatile boolean running;
+    private Thread thread;
+    private BufferStrategy strategy;
+
+    public ActiveRenderer(GameView view) {
+        this.view = view;
+        this.frameNanos = FRAME_CAP > 0 ? NANOS_PER_SECOND / FRAME_CAP : 0;
+        this.canvas = new Canvas();
+        canvas.setIgnoreRepaint(true);
+        canvas.setFocusable(false);
+        canvas.setBackground(Color.BLACK);
+    }
+
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this, "render-loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    @Override
+    public void run() {
+        long nextFrameTime = System.nanoTime();
+        while (running) {
+            if (!canvas.isShowing()) {
+                strategy = null;
+                sleep(IDLE_SLEEP_MS * NANOS_PER_MILLI);
+                nextFrameTime = System.nanoTime();
+                continue;
+            }
+
+            renderFrame();
+
+            if (frameNanos > 0) {
+                nextFrameTime += frameNanos;
+                long wait = nextFrameTime - System.nanoTime();
+                if (wait > 0) {
+                    sleep(wait);
+                } else {
+                    nextFrameTime = System.nanoTime();
+                }
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    private void renderFrame() {
+        if (strategy == null) {
+            canvas.createBufferStrategy(BUFFER_COUNT);
+            strategy = canvas.getBufferStrategy();
+        }
+
+        // Кадр строится из снимка мира, поэтому замок модели не нужен и симуляция не ждёт
+        do {
+            do {
+                Graphics2D g2d = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    view.renderFrame(g2d);
+                } finally {
+                    g2d.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    private void sleep(long nanos) {
+        try {
+            Thread.sleep(nanos / NANOS_PER_MILLI, (int) (nanos % NANOS_PER_MILLI));
+        } catch (InterruptedException e) {
+            running = false;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+// Камера задаёт, какая часть мира видна на экране. Следует за точкой (обычно центром танка игрока)
+// и не выходит за края мира; если мир меньше экрана, остаётся в нуле
+public class Camera {
+    private final int viewportWidth;
+    private final int viewportHeight;
+    private int x;
+    private int y;
+
+    public Camera(int viewportWidth, int viewportHeight) {
+        this.viewportWidth = viewportWidth;
+        this.viewportHeight = viewportHeight;
+    }
+
+    public void follow(int centerX, int centerY, int worldWidth, int worldHeight) {
+        x = clamp(centerX - viewportWidth / 2, worldWidth - viewportWidth);
+        y = clamp(centerY - viewportHeight / 2, worldHeight - viewportHeight);
+    }
+
+    private int clamp(int value, int max) {
+        return Math.max(0, Math.min(value, max));
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getViewportWidth() {
+        return viewportWidth;
+    }
+
+    public int getViewportHeight() {
+        return viewportHeight;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Учёт изменившихся областей кадра. Каждый кадр записываются прямоугольники всего нарисованного;
+// грязной считается объединение прямоугольников прошлого и текущего кадров, округлённое до ячеек сетки
+public class DirtyRegionTracker {
+    private final int cellSize;
+    private final int columns;
+    private final int rows;
+    private final boolean[] dirtyCells;
+    private int[] previousBounds = new int[256];
+    private int previousCount;
+    private int[] currentBounds = new int[256];
+    private int currentCount;
+    private boolean fullFrame = true;
+    private final List<Rectangle> regions = new ArrayList<>();
+    private final List<Rectangle> regionPool = new ArrayList<>();
+
+    public DirtyRegionTracker(int width, int height, int cellSize) {
+        this.cellSize = cellSize;
+        this.columns = (width + cellSize - 1) / cellSize;
+        this.rows = (height + cellSize - 1) / cellSize;
+        this.dirtyCells = new boolean[columns * rows];
+    }
+
+    public void beginFrame() {
+        int[] swap = previousBounds;
+        previousBounds = currentBounds;
+        currentBounds = swap;
+        previousCount = currentCount;
+        currentCount = 0;
+    }
+
+    public void addDrawn(int x, int y, int width, int height) {
+        if (currentCount + 4 > currentBounds.length) {
+            currentBounds = Arrays.copyOf(currentBounds, currentBounds.length * 2);
+        }
+        currentBounds[currentCount++] = x;
+        currentBounds[currentCount++] = y;
+        currentBounds[currentCount++] = width;
+        currentBounds[currentCount++] = height;
+    }
+
+    public void markAll() {
+        fullFrame = true;
+    }
+
+    // Грязные ячейки сливаются в горизонтальные полосы; список переиспользуется между кадрами
+    public List<Rectangle> collectDirtyRegions() {
+        recycleRegions();
+
+        if (fullFrame) {
+            fullFrame = false;
+            addRegion(0, 0, columns * cellSize, rows * cellSize);
+            return regions;
+        }
+
+        Arrays.fill(dirtyCells, false);
+        markCells(previousBounds, previousCount);
+        markCells(currentBounds, currentCount);
+
+        for (int row = 0; row < rows; row++) {
+            int column = 0;
+            while (column < columns) {
+                if (!dirtyCells[row * columns + column]) {
+                    column++;
+                    continue;
+                }
+                int start = column;
+                while (column < columns && dirtyCells[row * columns + column]) {
+                    column++;
+                }
+                addRegion(start * cellSize, row * cellSize, (column - start) * cellSize, cellSize);
+            }
+        }
+        return regions;
+    }
+
+    private void markCells(int[] bounds, int count) {
+        for (int i = 0; i < count; i += 4) {
+            int firstColumn = Math.max(bounds[i] / cellSize, 0);
+            int lastColumn = Math.min((bounds[i] + bounds[i + 2]) / cellSize, columns - 1);
+            int firstRow = Math.max(bounds[i + 1] / cellSize, 0);
+            int lastRow = Math.min((bounds[i + 1] + bounds[i + 3]) / cellSize, rows - 1);
+
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    dirtyCells[row * columns + column] = true;
+                }
+            }
+        }
+    }
+
+    private void addRegion(int x, int y, int width, int height) {
+        Rectangle region = regionPool.isEmpty() ? new Rectangle() : regionPool.remove(regionPool.size() - 1);
+        region.setBounds(x, y, width, height);
+        regions.add(region);
+    }
+
+    private void recycleRegions() {
+        regionPool.addAll(regions);
+        regions.clear();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,269 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Хранилище однотипных сущностей в виде структуры массивов (x, y, направление, здоровье, жизнь, владелец).
+// Так хранятся пули и танки; объекты Tank — только виды на строки хранилища.
+// Мёртвые записи удаляются перестановкой последней записи на их место (compact) или сдвигом
+// с сохранением порядка (compactInOrder), когда от порядка зависит ход матча
+public class EntityStore {
+    public static final int OWNER_PLAYER = 0;
+    public static final int OWNER_ENEMY = -1;
+
+    private static final int DIRECTION_MASK = 3;
+    private static final int[] DIRECTION_DX = {0, 1, 0, -1};
+    private static final int[] DIRECTION_DY = {-1, 0, 1, 0};
+    private static final int DEFAULT_CAPACITY = 64;
+    // x, y, предыдущие x и y, направление, владелец
+    private static final int SAVED_ENTITY_BYTES = 4 * Integer.BYTES + 1 + 1;
+
+    private final int entityWidth;
+    private final int entityHeight;
+    private int size;
+    private int[] x;
+    private int[] y;
+    private int[] previousX;
+    private int[] previousY;
+    private int[] direction;
+    private int[] owner;
+    private int[] health;
+    private boolean[] alive;
+
+    public EntityStore(int entityWidth, int entityHeight) {
+        this(entityWidth, entityHeight, DEFAULT_CAPACITY);
+    }
+
+    public EntityStore(int entityWidth, int entityHeight, int initialCapacity) {
+        this.entityWidth = entityWidth;
+        this.entityHeight = entityHeight;
+        allocate(Math.max(1, initialCapacity));
+    }
+
+    private void allocate(int capacity) {
+        x = new int[capacity];
+        y = new int[capacity];
+        previousX = new int[capacity];
+        previousY = new int[capacity];
+        direction = new int[capacity];
+        owner = new int[capacity];
+        health = new int[capacity];
+        alive = new boolean[capacity];
+    }
+
+    public int add(int newX, int newY, int newDirection, int newOwner) {
+        if (size == x.length) {
+            grow();
+        }
+        int index = size++;
+        x[index] = newX;
+        y[index] = newY;
+        previousX[index] = newX;
+        previousY[index] = newY;
+        direction[index] = newDirection;
+        owner[index] = newOwner;
+        health[index] = 1;
+        alive[index] = true;
+        return index;
+    }
+
+    public void addAll(EntityStore other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.x[i], other.y[i], other.direction[i], other.owner[i]);
+        }
+    }
+
+    private void grow() {
+        int capacity = x.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        previousX = Arrays.copyOf(previousX, capacity);
+        previousY = Arrays.copyOf(previousY, capacity);
+        direction = Arrays.copyOf(direction, capacity);
+        owner = Arrays.copyOf(owner, capacity);
+        health = Arrays.copyOf(health, capacity);
+        alive = Arrays.copyOf(alive, capacity);
+    }
+
+    public void savePreviousPositions() {
+        System.arraycopy(x, 0, previousX, 0, size);
+        System.arraycopy(y, 0, previousY, 0, size);
+    }
+
+    public void moveAll(int step) {
+        for (int i = 0; i < size; i++) {
+            x[i] += DIRECTION_DX[direction[i]] * step;
+            y[i] += DIRECTION_DY[direction[i]] * step;
+        }
+    }
+
+    // Граница включительная, как в прежнем Bullet.checkBoundaries
+    public void killOutside(int maxX, int maxY) {
+        for (int i = 0; i < size; i++) {
+            if (x[i] < 0 || x[i] > maxX || y[i] < 0 || y[i] > maxY) {
+                alive[i] = false;
+            }
+        }
+    }
+
+    public void compact() {
+        int i = 0;
+        while (i < size) {
+            if (alive[i]) {
+                i++;
+            } else {
+                moveLastTo(i);
+            }
+        }
+    }
+
+    private void moveLastTo(int index) {
+        copy(--size, index);
+    }
+
+    // Живые записи сдвигаются к началу, сохраняя взаимный порядок
+    public void compactInOrder() {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (alive[i]) {
+                if (kept != i) {
+                    copy(i, kept);
+                }
+                kept++;
+            }
+        }
+        size = kept;
+    }
+
+    private void copy(int from, int to) {
+        x[to] = x[from];
+        y[to] = y[from];
+        previousX[to] = previousX[from];
+        previousY[to] = previousY[from];
+        direction[to] = direction[from];
+        owner[to] = owner[from];
+        health[to] = health[from];
+        alive[to] = alive[from];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getX(int index) {
+        return x[index];
+    }
+
+    public int getY(int index) {
+        return y[index];
+    }
+
+    public int getPreviousX(int index) {
+        return previousX[index];
+    }
+
+    public int getPreviousY(int index) {
+        return previousY[index];
+    }
+
+    public int getDirection(int index) {
+        return direction[index];
+    }
+
+    public int getOwner(int index) {
+        return owner[index];
+    }
+
+    public int getHealth(int index) {
+        return health[index];
+    }
+
+    public boolean isAlive(int index) {
+        return alive[index];
+    }
+
+    public void setPosition(int index, int newX, int newY) {
+        x[index] = newX;
+        y[index] = newY;
+    }
+
+    public void setPreviousPosition(int index, int newX, int newY) {
+        previousX[index] = newX;
+        previousY[index] = newY;
+    }
+
+    public void setDirection(int index, int newDirection) {
+        direction[index] = newDirection;
+    }
+
+    public void setHealth(int index, int newHealth) {
+        health[index] = newHealth;
+    }
+
+    public void setAlive(int index, boolean isAlive) {
+        alive[index] = isAlive;
+    }
+
+    public void kill(int index) {
+        alive[index] = false;
+    }
+
+    // Попадание отнимает единицу здоровья; на нуле запись погибает
+    public void damage(int index) {
+        health[index]--;
+        if (health[index] <= 0) {
+            alive[index] = false;
+        }
+    }
+
+    public boolean intersects(int index, int otherX, int otherY, int otherWidth, int otherHeight) {
+        return x[index] < otherX + otherWidth && otherX < x[index] + entityWidth &&
+                y[index] < otherY + otherHeight && otherY < y[index] + entityHeight;
+    }
+
+    // Сохраняются только живые записи, в текущем порядке
+    public int getSavedBytes() {
+        return Integer.BYTES + size * SAVED_ENTITY_BYTES;
+    }
+
+    public void writeTo(ByteBuffer buffer) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (alive[i]) {
+                count++;
+            }
+        }
+        buffer.putInt(count);
+        for (int i = 0; i < size; i++) {
+            if (alive[i]) {
+                buffer.putInt(x[i]).putInt(y[i]).putInt(previousX[i]).putInt(previousY[i])
+                        .put((byte) direction[i]).put((byte) owner[i]);
+            }
+        }
+    }
+
+    public void readFrom(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining() / SAVED_ENTITY_BYTES) {
+            throw new IllegalArgumentException("Неверное число записей: " + count);
+        }
+        clear();
+        for (int i = 0; i < count; i++) {
+            int index = add(buffer.getInt(), buffer.getInt(), 0, 0);
+            previousX[index] = buffer.getInt();
+            previousY[index] = buffer.getInt();
+            direction[index] = buffer.get() & DIRECTION_MASK;
+            owner[index] = buffer.get();
+        }
+    }
+
+    public int getEntityWidth() {
+        return entityWidth;
+    }
+
+    public int getEntityHeight() {
+        return entityHeight;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+import java.util.Arrays;
+
+// Общее для всех врагов поле направлений: поиск в ширину по тайловой карте от тайла игрока.
+// Для каждого свободного тайла хранится направление к соседу, который ближе к цели
+public class FlowField {
+    public static final int NO_DIRECTION = -1;
+
+    private static final int[] DIRECTION_DX = {0, 1, 0, -1};
+    private static final int[] DIRECTION_DY = {-1, 0, 1, 0};
+
+    private int columns;
+    private int rows;
+    private int[] directions = new int[0];
+    private int[] queue = new int[0];
+    private int targetColumn = -1;
+    private int targetRow = -1;
+
+    public void invalidate() {
+        targetColumn = -1;
+        targetRow = -1;
+    }
+
+    // Пересчёт только при смене тайла цели или после invalidate(); стоимость O(тайлов)
+    public boolean update(int[][] map, int column, int row) {
+        if (column == targetColumn && row == targetRow) {
+            return false;
+        }
+        targetColumn = column;
+        targetRow = row;
+        rebuild(map);
+        return true;
+    }
+
+    private void rebuild(int[][] map) {
+        columns = map.length;
+        rows = map[0].length;
+        if (directions.length != columns * rows) {
+            directions = new int[columns * rows];
+            queue = new int[columns * rows];
+        }
+        Arrays.fill(directions, NO_DIRECTION);
+
+        if (!isOpen(map, targetColumn, targetRow)) {
+            return;
+        }
+
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = index(targetColumn, targetRow);
+
+        while (head < tail) {
+            int current = queue[head++];
+            int column = current / rows;
+            int row = current % rows;
+
+            for (int direction = 0; direction < 4; direction++) {
+                int neighbourColumn = column + DIRECTION_DX[direction];
+                int neighbourRow = row + DIRECTION_DY[direction];
+                if (!isOpen(map, neighbourColumn, neighbourRow)) {
+                    continue;
+                }
+                int neighbour = index(neighbourColumn, neighbourRow);
+                if (neighbour == index(targetColumn, targetRow) || directions[neighbour] != NO_DIRECTION) {
+                    continue;
+                }
+                // Сосед идёт к текущему тайлу, то есть в противоположную сторону
+                directions[neighbour] = (direction + 2) % 4;
+                queue[tail++] = neighbour;
+            }
+        }
+    }
+
+    public int getDirection(int column, int row) {
+        if (column < 0 || column >= columns || row < 0 || row >= rows) {
+            return NO_DIRECTION;
+        }
+        return directions[index(column, row)];
+    }
+
+    private boolean isOpen(int[][] map, int column, int row) {
+        return column >= 0 && column < columns && row >= 0 && row < rows && map[column][row] != 1;
+    }
+
+    private int index(int column, int row) {
+        return column * rows + row;
+    }
+}
\ No newline at end of file
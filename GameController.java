@@ -1,23 +1,33 @@
+import java.awt.Component;
 import java.awt.event.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import javax.swing.JButton;
+import javax.swing.JOptionPane;
 
 public class GameController extends KeyAdapter implements ActionListener {
+    private static final Path SAVE_PATH = Paths.get(System.getProperty("tankwar.save", "tankwar.sav"));
+
     private GameModel model;
     private MainApp application;
+    private MapLibrary mapLibrary;
     private GameView gameView;
     private MenuView menuView;
 
     private boolean isWPressed, isAPressed, isSPressed, isDPressed;
 
-    public GameController(GameModel model, MainApp application) {
+    public GameController(GameModel model, MainApp application, MapLibrary mapLibrary) {
         this.model = model;
         this.application = application;
+        this.mapLibrary = mapLibrary;
     }
 
     public void setViews(GameView gameView, MenuView menuView) {
         this.gameView = gameView;
         this.menuView = menuView;
         gameView.addKeyListener(this);
+        menuView.setMapFiles(mapLibrary.listMapFiles());
     }
 
     @Override
@@ -44,11 +54,23 @@ public class GameController extends KeyAdapter implements ActionListener {
     private void startNewGame() {
         int enemyCount = menuView.getEnemyCount();
         int mapId = menuView.getSelectedMapId();
-        model.initGame(enemyCount, mapId);
+        if (mapId == TileMap.FROM_FILE) {
+            try {
+                model.initGame(enemyCount, mapLibrary.load(menuView.getSelectedMapFile()), menuView.isMassiveBattle());
+            } catch (IOException e) {
+                showError(menuView, "Не удалось загрузить карту", e);
+                return;
+            }
+        } else {
+            model.initGame(enemyCount, mapId, menuView.isMassiveBattle(),
+                    menuView.getMapColumns(), menuView.getMapRows());
+        }
         application.showGameScreen();
     }
 
+    // Файлы карт могли появиться или пропасть, пока шёл матч
     private void returnToMenu() {
+        menuView.setMapFiles(mapLibrary.listMapFiles());
         application.showMenuScreen();
     }
 
@@ -58,6 +80,11 @@ public class GameController extends KeyAdapter implements ActionListener {
 
     @Override
     public void keyPressed(KeyEvent event) {
+        // Загрузка доступна и после конца матча
+        if (event.getKeyCode() == KeyEvent.VK_F9) {
+            quickLoad();
+            return;
+        }
         if (model.getCurrentState() != GameModel.GameState.RUNNING) {
             return;
         }
@@ -72,6 +99,8 @@ public class GameController extends KeyAdapter implements ActionListener {
             case KeyEvent.VK_A: isAPressed = true; break;
             case KeyEvent.VK_D: isDPressed = true; break;
             case KeyEvent.VK_SPACE: model.playerShoot(); break;
+            case KeyEvent.VK_F3: gameView.togglePerformanceOverlay(); break;
+            case KeyEvent.VK_F5: quickSave(); break;
         }
         updatePlayerMovement();
     }
@@ -91,6 +120,26 @@ public class GameController extends KeyAdapter implements ActionListener {
         updatePlayerMovement();
     }
 
+    private void quickSave() {
+        try {
+            SaveGame.save(model, SAVE_PATH);
+        } catch (IOException e) {
+            showError(gameView, "Не удалось сохранить игру", e);
+        }
+    }
+
+    private void quickLoad() {
+        try {
+            SaveGame.load(model, SAVE_PATH);
+        } catch (IOException e) {
+            showError(gameView, "Не удалось загрузить игру", e);
+        }
+    }
+
+    private void showError(Component parent, String message, IOException e) {
+        JOptionPane.showMessageDialog(parent, message + ":\n" + e.getMessage(), "Ошибка", JOptionPane.ERROR_MESSAGE);
+    }
+
     private void updatePlayerMovement() {
         if (isWPressed) {
             setPlayerMovement(0, true);
@@ -0,0 +1,160 @@
+public class GameLoop implements Runnable {
+    public enum Pacing { REAL_TIME, AS_FAST_AS_POSSIBLE }
+
+    public static final int TICKS_PER_SECOND = 50;
+    public static final long TICK_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
+    private static final int MAX_TICKS_PER_ADVANCE = 5;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final GameModel model;
+    private volatile Pacing pacing;
+    private volatile boolean running;
+    private Thread thread;
+    private long accumulator;
+    private long lastAdvanceTime = -1;
+    private long tickCount;
+
+    public GameLoop(GameModel model, Pacing pacing) {
+        this.model = model;
+        this.pacing = pacing;
+    }
+
+    // Накапливает прошедшее время и выполняет столько фиксированных тиков, сколько набралось.
+    // Вызывается потоком цикла в реальном темпе и замером в main
+    private void advance(long now) {
+        if (lastAdvanceTime < 0) {
+            lastAdvanceTime = now;
+        }
+        accumulator += now - lastAdvanceTime;
+        lastAdvanceTime = now;
+
+        int ticks = 0;
+        while (accumulator >= TICK_NANOS && ticks < MAX_TICKS_PER_ADVANCE) {
+            tick();
+            accumulator -= TICK_NANOS;
+            ticks++;
+        }
+
+        // Если симуляция не успевает, отбрасываем долг вместо лавинообразного догоняния
+        if (accumulator >= TICK_NANOS) {
+            accumulator %= TICK_NANOS;
+        }
+    }
+
+    public void tick() {
+        model.updateGame();
+        tickCount++;
+    }
+
+    public void runTicks(long count) {
+        for (long i = 0; i < count; i++) {
+            tick();
+        }
+    }
+
+    public void reset() {
+        accumulator = 0;
+        lastAdvanceTime = -1;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this, "game-loop");
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    @Override
+    public void run() {
+        reset();
+        while (running) {
+            if (pacing == Pacing.AS_FAST_AS_POSSIBLE) {
+                // Вне матча тик ничего не делает: вместо холостого цикла поток спит по тику
+                if (model.getCurrentState() == GameModel.GameState.RUNNING) {
+                    tick();
+                } else {
+                    sleep(TICK_NANOS);
+                }
+            } else {
+                advance(System.nanoTime());
+                sleepUntilNextTick();
+            }
+        }
+    }
+
+    private void sleepUntilNextTick() {
+        long remaining = TICK_NANOS - accumulator;
+        if (remaining > 0) {
+            sleep(remaining);
+        }
+    }
+
+    private void sleep(long nanos) {
+        try {
+            Thread.sleep(nanos / NANOS_PER_MILLI, (int) (nanos % NANOS_PER_MILLI));
+        } catch (InterruptedException e) {
+            running = false;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public Pacing getPacing() {
+        return pacing;
+    }
+
+    public void setPacing(Pacing pacing) {
+        this.pacing = pacing;
+    }
+
+    // Запуск симуляции без окна:
+    // java -Djava.awt.headless=true GameLoop [тики] [враги] [карта] [realtime] [столбцов] [строк]
+    // Без числа строк карта квадратная
+    public static void main(String[] args) {
+        long ticks = args.length > 0 ? Long.parseLong(args[0]) : 10_000;
+        int enemyCount = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int mapId = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        Pacing pacing = args.length > 3 && "realtime".equals(args[3]) ? Pacing.REAL_TIME : Pacing.AS_FAST_AS_POSSIBLE;
+        int columns = args.length > 4 ? Integer.parseInt(args[4]) : GameModel.SCREEN_MAP_COLUMNS;
+        int rows = args.length > 5 ? Integer.parseInt(args[5]) : args.length > 4 ? columns : GameModel.SCREEN_MAP_ROWS;
+
+        GameModel model = new GameModel();
+        GameLoop loop = new GameLoop(model, pacing);
+        boolean massiveBattle = enemyCount > 50;
+        model.initGame(enemyCount, mapId, massiveBattle, columns, rows);
+
+        long startTime = System.nanoTime();
+        while (loop.getTickCount() < ticks) {
+            if (model.getCurrentState() != GameModel.GameState.RUNNING) {
+                model.initGame(enemyCount, mapId, massiveBattle, columns, rows);
+            }
+            if (pacing == Pacing.AS_FAST_AS_POSSIBLE) {
+                loop.tick();
+            } else {
+                loop.advance(System.nanoTime());
+                loop.sleepUntilNextTick();
+            }
+        }
+        long elapsed = System.nanoTime() - startTime;
+
+        System.out.printf("Тиков: %d за %.1f мс (%.0f тиков/с)%n",
+                loop.getTickCount(), elapsed / 1e6, loop.getTickCount() * 1e9 / elapsed);
+        System.out.println("Частицы: " + model.getParticles());
+    }
+}
\ No newline at end of file
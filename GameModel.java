@@ -1,17 +1,28 @@
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.awt.Color;
-import java.awt.Rectangle;
 
 public class GameModel {
     public enum GameState { RUNNING, DEFEAT, VICTORY, MENU }
     public enum MapTheme { SUMMER, DESERT }
 
-    public static final int MAP_WIDTH = 1200;
-    public static final int MAP_HEIGHT = 900;
+    public static final int VIEWPORT_WIDTH = 1200;
+    public static final int VIEWPORT_HEIGHT = 900;
     public static final int TILE_SIZE = 50;
+    public static final int SCREEN_MAP_COLUMNS = VIEWPORT_WIDTH / TILE_SIZE;
+    public static final int SCREEN_MAP_ROWS = VIEWPORT_HEIGHT / TILE_SIZE;
+    public static final int LARGE_MAP_TILES = 500;
+    public static final int HUGE_MAP_TILES = 2000;
     private static final int MAX_ENEMY_COUNT = 50;
+    public static final int MAX_BATTLE_ENEMY_COUNT = 100_000;
+    private static final int PARALLEL_ENEMY_THRESHOLD = 2_048;
+    private static final int ENEMIES_PER_PARALLEL_TASK = 1_024;
     private static final int DEFAULT_ENEMY_COUNT = 5;
     private static final int AI_SHOOT_PROBABILITY = 5;
     private static final int LINE_OF_SIGHT_RANGE = 500;
@@ -19,140 +30,392 @@ public class GameModel {
     private static final int ENEMY_MOVEMENT_STEP = 3;
     private static final int MAX_POSITION_ATTEMPTS = 200;
     private static final int MIN_SAFE_DISTANCE = 50;
-
+    private static final int NO_DIRECTION_REQUEST = -1;
+    private static final long RESTORE_SEED_GAMMA = 0x9E3779B97F4A7C15L;
+    // Зерно, тик, состояние, тема, счёт, число врагов на старте, флаги, ввод
+    private static final int SAVED_MATCH_BYTES = 2 * Long.BYTES + 2 + 2 * Integer.BYTES + 3;
+    // Начальная ёмкость хранилища пуль; при нехватке оно растёт само
+    private static final int BULLET_STORE_CAPACITY = Integer.getInteger("tankwar.bullets.capacity", 1024);
+    private static final int PARTICLE_CAPACITY = Integer.getInteger("tankwar.particles", 8192);
+    private static final int TANK_EXPLOSION_RADIUS = Tank.SIZE / 2;
+    private static final int WALL_HIT_RADIUS = Tank.SIZE / 4;
+    private static final Color[] ALLY_COLORS = {
+            new Color(0, 160, 255), Color.GREEN.darker(), Color.ORANGE, Color.MAGENTA.darker(), Color.CYAN.darker()
+    };
+
+    // Танки лежат столбцами в хранилищах: строка 0 игроков — playerTank, дальше союзники
+    // по порядку; враги — в своём хранилище в порядке списка enemies. Объекты Tank — виды на строки
+    private EntityStore playerTanks = new EntityStore(Tank.SIZE, Tank.SIZE);
+    private EntityStore enemyTanks = new EntityStore(Tank.SIZE, Tank.SIZE);
     private Tank playerTank;
     private List<Tank> enemies;
-    private List<Bullet> bullets;
-    private List<Explosion> explosions;
-    private List<Rectangle> obstacles;
+    // Союзники — танки сетевых игроков, кроме первого (GameServer); первый управляет playerTank.
+    // Ввод союзника — байт в формате InputRecorder, выстрел из него срабатывает один раз
+    private final List<Tank> allies = new ArrayList<>();
+    private byte[] allyInput = new byte[0];
+    private EntityStore bullets = new EntityStore(Bullet.SIZE, Bullet.SIZE, BULLET_STORE_CAPACITY);
+    private final ParticleSystem particles;
     private int score = 0;
-    private GameState currentState = GameState.MENU;
+    private volatile GameState currentState = GameState.MENU;
     private MapTheme currentTheme;
     private int[][] map;
+    private int worldWidth;
+    private int worldHeight;
+    private int mapVersion;
+    private LineOfSight lineOfSight = new LineOfSight();
+    private FlowField flowField = new FlowField();
     private int initialEnemyCount;
+    private boolean massiveBattle;
     private GameLogicProcessor logicProcessor;
+    private final SplittableRandom matchSeeds;
+    private SplittableRandom random;
+    private long matchSeed;
+    private InputRecorder inputRecorder;
+    private boolean recordingMatch;
+    private long currentTick;
+    private volatile int requestedDirection = NO_DIRECTION_REQUEST;
+    private volatile boolean requestedMoving;
+    private volatile boolean shootRequested;
+    private final SnapshotBuffer snapshots = new SnapshotBuffer();
 
     public GameModel() {
-        map = new int[MAP_WIDTH / TILE_SIZE][MAP_HEIGHT / TILE_SIZE];
+        this(System.nanoTime());
+    }
+
+    // Одинаковое зерно и одинаковый ввод дают одинаковый ход матчей: каждый матч получает
+    // своё зерно из генератора модели, а каждый танк — поток, отщеплённый от генератора матча
+    public GameModel(long seed) {
+        matchSeeds = new SplittableRandom(seed);
+        particles = new ParticleSystem(PARTICLE_CAPACITY, seed);
         logicProcessor = new GameLogicProcessor(this);
     }
 
     public void initGame(int enemyCount, int mapId) {
-        initializeMap(mapId);
-        this.initialEnemyCount = Math.min(Math.max(1, enemyCount), MAX_ENEMY_COUNT);
-
-        int[] playerPos = findSafePosition();
-        playerTank = new Tank(playerPos[0], playerPos[1], 0, Color.BLUE, true, 3);
+        initGame(enemyCount, mapId, false);
+    }
 
-        enemies = new ArrayList<>();
-        bullets = new ArrayList<>();
-        explosions = new ArrayList<>();
-        score = 0;
+    // В режиме массового сражения снимается ограничение в 50 врагов,
+    // а движение и стрельба врагов распределяются по ядрам
+    public void initGame(int enemyCount, int mapId, boolean massiveBattle) {
+        initGame(enemyCount, mapId, massiveBattle, SCREEN_MAP_COLUMNS, SCREEN_MAP_ROWS);
+    }
 
-        for (int i = 0; i < initialEnemyCount; i++) {
-            int[] enemyPos = findSafePosition();
-            enemies.add(new Tank(enemyPos[0], enemyPos[1], 2, Color.RED.darker(), false, 1));
-        }
+    // Размер карты в тайлах задаётся при старте матча и может быть намного больше экрана
+    public synchronized void initGame(int enemyCount, int mapId, boolean massiveBattle, int columns, int rows) {
+        initGame(enemyCount, mapId, massiveBattle, columns, rows, matchSeeds.nextLong());
+    }
 
-        currentState = GameState.RUNNING;
+    // Матч с заданным зерном: по зерну, параметрам и вводу игрока он воспроизводится тик в тик
+    public void initGame(int enemyCount, int mapId, boolean massiveBattle, int columns, int rows, long matchSeed) {
+        initGame(enemyCount, TileMap.generate(mapId, columns, rows, matchSeed), massiveBattle, matchSeed);
     }
 
-    private void initializeMap(int mapId) {
-        obstacles = new ArrayList<>();
-        resetMapAndBorders();
+    // Матч на готовой карте, например прочитанной из файла
+    public synchronized void initGame(int enemyCount, TileMap tileMap, boolean massiveBattle) {
+        initGame(enemyCount, tileMap, massiveBattle, matchSeeds.nextLong());
+    }
 
-        if (mapId == 1) {
-            currentTheme = MapTheme.SUMMER;
-            setupSummerMap();
-        } else if (mapId == 2) {
-            currentTheme = MapTheme.DESERT;
-            setupDesertMap();
+    public synchronized void initGame(int enemyCount, TileMap tileMap, boolean massiveBattle, long matchSeed) {
+        this.matchSeed = matchSeed;
+        random = new SplittableRandom(matchSeed);
+        particles.reset(matchSeed);
+        recordingMatch = inputRecorder != null;
+        if (recordingMatch) {
+            inputRecorder.beginMatch(matchSeed, enemyCount, tileMap, massiveBattle);
         }
+        initializeMap(tileMap);
+        this.massiveBattle = massiveBattle;
+        int maxEnemyCount = massiveBattle ? MAX_BATTLE_ENEMY_COUNT : MAX_ENEMY_COUNT;
+        this.initialEnemyCount = Math.min(Math.max(1, enemyCount), maxEnemyCount);
+
+        int[] playerPos = tileMap.hasPlayerSpawn()
+                ? findSpawnPosition(tileMap.getPlayerSpawnColumn(), tileMap.getPlayerSpawnRow())
+                : findSafePosition();
+        playerTanks.clear();
+        enemyTanks.clear();
+        playerTank = new Tank(playerTanks, playerPos[0], playerPos[1], 0, Color.BLUE, true, 3, random.split());
 
-        buildObstacleHitboxes();
-    }
-
-    private void resetMapAndBorders() {
-        int mapWidth = map.length;
-        int mapHeight = map[0].length;
+        enemies = new ArrayList<>();
+        allies.clear();
+        bullets.clear();
+        score = 0;
+        currentTick = 0;
+        requestedDirection = NO_DIRECTION_REQUEST;
+        requestedMoving = false;
+        shootRequested = false;
 
-        for (int x = 0; x < mapWidth; x++) {
-            for (int y = 0; y < mapHeight; y++) {
-                map[x][y] = 0;
-                if (x == 0 || x == mapWidth - 1 || y == 0 || y == mapHeight - 1) {
-                    map[x][y] = 1;
-                }
-            }
+        for (int i = 0; i < initialEnemyCount; i++) {
+            int[] enemyPos = i < tileMap.getEnemySpawnCount()
+                    ? findSpawnPosition(tileMap.getEnemySpawnColumn(i), tileMap.getEnemySpawnRow(i))
+                    : findSafePosition();
+            enemies.add(new Tank(enemyTanks, enemyPos[0], enemyPos[1], 2, Color.RED.darker(), false, 1,
+                    random.split()));
         }
-    }
 
-    private void setupSummerMap() {
-        map[5][5] = 1; map[6][5] = 1;
-        map[15][5] = 1; map[15][6] = 1;
-        map[10][10] = 1; map[11][10] = 1; map[12][10] = 1;
-        map[5][12] = 1;
-        map[18][12] = 1; map[19][12] = 1;
-        map[8][3] = 1; map[8][4] = 1;
-        map[3][8] = 1; map[3][9] = 1;
-        map[16][15] = 1; map[17][15] = 1;
+        currentState = GameState.RUNNING;
+        publishSnapshot(0);
     }
 
-    private void setupDesertMap() {
-        for (int x = 4; x < map.length - 4; x += 4) {
-            for (int y = 3; y < map[0].length - 3; y += 3) {
-                map[x][y] = 1;
+    private void initializeMap(TileMap tileMap) {
+        mapVersion++;
+        int columns = tileMap.getColumns();
+        int rows = tileMap.getRows();
+        // Новый массив на каждую карту: прежний может ещё читать отрисовка из старого снимка
+        map = new int[columns][rows];
+        worldWidth = columns * TILE_SIZE;
+        worldHeight = rows * TILE_SIZE;
+        for (int x = 0; x < columns; x++) {
+            for (int y = 0; y < rows; y++) {
+                map[x][y] = tileMap.isWall(x, y) ? 1 : 0;
             }
         }
-        map[10][8] = 1; map[11][8] = 1; map[12][8] = 1;
+        currentTheme = tileMap.getTheme();
+        rebuildMapStructures();
     }
 
-    private void buildObstacleHitboxes() {
-        for (int x = 0; x < map.length; x++) {
-            for (int y = 0; y < map[0].length; y++) {
-                if (map[x][y] == 1) {
-                    obstacles.add(new Rectangle(x * TILE_SIZE, y * TILE_SIZE, TILE_SIZE, TILE_SIZE));
-                }
-            }
-        }
+    // Производные от карты структуры: таблицы видимости, поле путей, сетка врагов
+    private void rebuildMapStructures() {
+        lineOfSight.rebuild(map);
+        flowField.invalidate();
+        logicProcessor.resizeWorld(worldWidth, worldHeight);
+    }
+
+    // Танк по центру тайла точки появления; если там стена — случайное свободное место
+    private int[] findSpawnPosition(int column, int row) {
+        int x = column * TILE_SIZE + (TILE_SIZE - Tank.SIZE) / 2;
+        int y = row * TILE_SIZE + (TILE_SIZE - Tank.SIZE) / 2;
+        return isWallInArea(x, y, Tank.SIZE, Tank.SIZE) ? findSafePosition() : new int[]{x, y};
     }
 
     private int[] findSafePosition() {
         for (int attempt = 0; attempt < MAX_POSITION_ATTEMPTS; attempt++) {
-            int x = MIN_SAFE_DISTANCE + (int) (Math.random() * (MAP_WIDTH - 2 * MIN_SAFE_DISTANCE));
-            int y = MIN_SAFE_DISTANCE + (int) (Math.random() * (MAP_HEIGHT - 2 * MIN_SAFE_DISTANCE));
-            Rectangle testRect = new Rectangle(x, y, Tank.SIZE, Tank.SIZE);
+            int x = MIN_SAFE_DISTANCE + (int) (random.nextDouble() * (worldWidth - 2 * MIN_SAFE_DISTANCE));
+            int y = MIN_SAFE_DISTANCE + (int) (random.nextDouble() * (worldHeight - 2 * MIN_SAFE_DISTANCE));
 
-            if (isPositionSafe(testRect)) {
+            if (!isWallInArea(x, y, Tank.SIZE, Tank.SIZE)) {
                 return new int[]{x, y};
             }
         }
         return new int[]{100, 100};
     }
 
-    private boolean isPositionSafe(Rectangle position) {
-        for (Rectangle wall : obstacles) {
-            if (position.intersects(wall)) {
-                return false;
+    // Проверка стен напрямую по тайловой сетке: только тайлы, которые накрывает область
+    boolean isWallInArea(int x, int y, int width, int height) {
+        int firstColumn = Math.max(x / TILE_SIZE, 0);
+        int lastColumn = Math.min((x + width - 1) / TILE_SIZE, map.length - 1);
+        int firstRow = Math.max(y / TILE_SIZE, 0);
+        int lastRow = Math.min((y + height - 1) / TILE_SIZE, map[0].length - 1);
+
+        for (int column = firstColumn; column <= lastColumn; column++) {
+            for (int row = firstRow; row <= lastRow; row++) {
+                if (map[column][row] == 1) {
+                    return true;
+                }
             }
         }
-        return true;
+        return false;
     }
 
-    public void updateGame() {
+    // Тик и перезапуск матча синхронизированы на модели: симуляция может идти
+    // не на EDT, а в потоке активной отрисовки
+    public synchronized void updateGame() {
         if (currentState != GameState.RUNNING) {
             return;
         }
 
+        long start = System.nanoTime();
         logicProcessor.updateGameState();
+        publishSnapshot(System.nanoTime() - start);
     }
 
-    public void playerShoot() {
+    // Копия состояния для отрисовки; вызывается под замком модели в конце тика и после initGame
+    private void publishSnapshot(long tickNanos) {
+        WorldSnapshot snapshot = snapshots.beginWrite();
+        snapshot.setWorld(currentTick, currentState, currentTheme, mapVersion, map,
+                worldWidth, worldHeight, score, enemies.size());
+        snapshot.setTickNanos(tickNanos);
+        snapshot.setPlayer(playerTank);
         if (playerTank != null && playerTank.isAlive()) {
-            Bullet newBullet = playerTank.shoot();
-            if (newBullet != null) {
-                bullets.add(newBullet);
+            snapshot.addTank(playerTank);
+        }
+        for (int i = 0; i < allies.size(); i++) {
+            if (allies.get(i).isAlive()) {
+                snapshot.addTank(allies.get(i));
             }
         }
+        for (int i = 0; i < enemies.size(); i++) {
+            Tank enemy = enemies.get(i);
+            if (enemy.isAlive()) {
+                snapshot.addTank(enemy);
+            }
+        }
+        snapshot.addBullets(bullets);
+        snapshot.addParticles(particles);
+        snapshots.publish();
+    }
+
+    // Отрисовка читает мир только отсюда, без замков и не задерживая симуляцию
+    public SnapshotBuffer getSnapshots() {
+        return snapshots;
+    }
+
+    GameLogicProcessor getLogicProcessor() {
+        return logicProcessor;
+    }
+
+    // Ввод игрока только запоминается и применяется в начале следующего тика,
+    // поэтому его можно передавать из любого потока
+    public void playerShoot() {
+        shootRequested = true;
+    }
+
+    // Запись ввода начинается со следующего матча; null выключает запись
+    public synchronized void setInputRecorder(InputRecorder inputRecorder) {
+        this.inputRecorder = inputRecorder;
+    }
+
+    // Повтор: ввод тика из записи, ровно в том виде, в каком его прочитало начало тика
+    void applyRecordedInput(int direction, boolean moving, boolean shoot) {
+        requestedDirection = direction;
+        requestedMoving = moving;
+        shootRequested = shoot;
+    }
+
+    // Новый сетевой игрок в идущем матче; возвращает его номер среди союзников.
+    // Ввод союзников в запись не попадает, поэтому запись такого матча останавливается
+    public synchronized int addAlly() {
+        int[] position = findSafePosition();
+        int ally = allies.size();
+        allies.add(new Tank(playerTanks, position[0], position[1], 0, ALLY_COLORS[ally % ALLY_COLORS.length], true, 3,
+                random.split()));
+        if (allyInput.length == ally) {
+            allyInput = Arrays.copyOf(allyInput, Math.max(4, ally * 2));
+        }
+        allyInput[ally] = 0;
+        recordingMatch = false;
+        return ally;
+    }
+
+    // Ввод союзника применяется в начале следующего тика
+    public synchronized void setAllyInput(int ally, byte input) {
+        allyInput[ally] = input;
+    }
+
+    public List<Tank> getAllies() {
+        return Collections.unmodifiableList(allies);
+    }
+
+    // Сохранение матча (формат — SaveGame). Частицы не сохраняются: они только украшение,
+    // союзники тоже: сетевые игроки после загрузки подключаются заново
+    synchronized ByteBuffer encodeState() {
+        if (playerTank == null) {
+            throw new IllegalStateException("Нет матча для сохранения");
+        }
+        int mapBytes = 2 * Integer.BYTES + map.length * map[0].length;
+        int tankBytes = Integer.BYTES + (1 + enemies.size()) * Tank.SAVED_BYTES;
+        ByteBuffer buffer = SaveGame.allocate(SAVED_MATCH_BYTES + mapBytes + tankBytes + bullets.getSavedBytes());
+
+        buffer.putLong(matchSeed)
+                .putLong(currentTick)
+                .put((byte) currentState.ordinal())
+                .put((byte) (currentTheme == null ? -1 : currentTheme.ordinal()))
+                .putInt(score)
+                .putInt(initialEnemyCount)
+                .put((byte) (massiveBattle ? 1 : 0))
+                .put((byte) requestedDirection)
+                .put((byte) (requestedMoving ? 1 : 0));
+
+        buffer.putInt(map.length).putInt(map[0].length);
+        for (int[] column : map) {
+            for (int tile : column) {
+                buffer.put((byte) tile);
+            }
+        }
+
+        playerTank.writeTo(buffer);
+        buffer.putInt(enemies.size());
+        for (int i = 0; i < enemies.size(); i++) {
+            enemies.get(i).writeTo(buffer);
+        }
+        bullets.writeTo(buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    // Восстановление матча. Состояние генераторов случайных чисел не извлечь, поэтому танки
+    // получают новые потоки из зерна матча и номера тика: загруженный матч дальше идёт
+    // детерминированно, но не тик в тик с оригиналом. Модель меняется, только если файл прочитан целиком
+    synchronized void decodeState(ByteBuffer buffer) {
+        long savedMatchSeed = buffer.getLong();
+        long savedTick = buffer.getLong();
+        GameState savedState = GameState.values()[buffer.get()];
+        int themeOrdinal = buffer.get();
+        MapTheme savedTheme = themeOrdinal < 0 ? null : MapTheme.values()[themeOrdinal];
+        int savedScore = buffer.getInt();
+        int savedInitialEnemyCount = buffer.getInt();
+        boolean savedMassiveBattle = buffer.get() != 0;
+        int savedDirection = buffer.get();
+        boolean savedMoving = buffer.get() != 0;
+
+        int columns = buffer.getInt();
+        int rows = buffer.getInt();
+        if (columns <= 0 || rows <= 0 || (long) columns * rows > buffer.remaining()) {
+            throw new IllegalArgumentException("Неверный размер карты: " + columns + "×" + rows);
+        }
+        int[][] savedMap = new int[columns][rows];
+        for (int[] column : savedMap) {
+            for (int row = 0; row < rows; row++) {
+                column[row] = buffer.get();
+            }
+        }
+
+        SplittableRandom restoredRandom = new SplittableRandom(savedMatchSeed + savedTick * RESTORE_SEED_GAMMA);
+        EntityStore savedPlayerTanks = new EntityStore(Tank.SIZE, Tank.SIZE);
+        Tank savedPlayer = Tank.readFrom(buffer, savedPlayerTanks, restoredRandom.split());
+        int enemyCount = buffer.getInt();
+        if (enemyCount < 0 || enemyCount > buffer.remaining() / Tank.SAVED_BYTES) {
+            throw new IllegalArgumentException("Неверное число врагов: " + enemyCount);
+        }
+        EntityStore savedEnemyTanks = new EntityStore(Tank.SIZE, Tank.SIZE, enemyCount);
+        List<Tank> savedEnemies = new ArrayList<>(enemyCount);
+        for (int i = 0; i < enemyCount; i++) {
+            savedEnemies.add(Tank.readFrom(buffer, savedEnemyTanks, restoredRandom.split()));
+        }
+        EntityStore savedBullets = new EntityStore(Bullet.SIZE, Bullet.SIZE, BULLET_STORE_CAPACITY);
+        savedBullets.readFrom(buffer);
+
+        matchSeed = savedMatchSeed;
+        random = restoredRandom;
+        particles.reset(savedMatchSeed + savedTick);
+        // Запись ввода описывает матч от старта, продолжение загруженного в неё не попадает
+        recordingMatch = false;
+        currentTick = savedTick;
+        currentTheme = savedTheme;
+        score = savedScore;
+        initialEnemyCount = savedInitialEnemyCount;
+        massiveBattle = savedMassiveBattle;
+        requestedDirection = savedDirection;
+        requestedMoving = savedMoving;
+        shootRequested = false;
+
+        mapVersion++;
+        map = savedMap;
+        worldWidth = columns * TILE_SIZE;
+        worldHeight = rows * TILE_SIZE;
+        rebuildMapStructures();
+
+        playerTanks = savedPlayerTanks;
+        enemyTanks = savedEnemyTanks;
+        playerTank = savedPlayer;
+        allies.clear();
+        enemies = savedEnemies;
+        bullets = savedBullets;
+        currentState = savedState;
+        publishSnapshot(0);
+    }
+
+    public long getMatchSeed() {
+        return matchSeed;
     }
 
     // Геттеры
@@ -160,26 +423,51 @@ public class GameModel {
         return map.clone();
     }
 
-    public List<Rectangle> getObstacles() {
-        return Collections.unmodifiableList(obstacles);
+    // Меняется при каждой перестройке карты; по нему кэши отрисовки понимают, что карта сменилась
+    public int getMapVersion() {
+        return mapVersion;
+    }
+
+    public int getMapColumns() {
+        return map.length;
+    }
+
+    public int getMapRows() {
+        return map[0].length;
+    }
+
+    public boolean isWallTile(int column, int row) {
+        return map[column][row] == 1;
+    }
+
+    public int getWorldWidth() {
+        return worldWidth;
+    }
+
+    public int getWorldHeight() {
+        return worldHeight;
     }
 
     public List<Tank> getEnemies() {
         return Collections.unmodifiableList(enemies);
     }
 
-    public List<Bullet> getBullets() {
-        return Collections.unmodifiableList(bullets);
+    public EntityStore getBulletStore() {
+        return bullets;
     }
 
-    public List<Explosion> getExplosions() {
-        return Collections.unmodifiableList(explosions);
+    public ParticleSystem getParticles() {
+        return particles;
     }
 
     public Tank getPlayerTank() {
         return playerTank;
     }
 
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
     public int getScore() {
         return score;
     }
@@ -188,134 +476,408 @@ public class GameModel {
         return currentState;
     }
 
+    public boolean isMassiveBattle() {
+        return massiveBattle;
+    }
+
     public MapTheme getCurrentTheme() {
         return currentTheme;
     }
 
     public void setPlayerMoving(boolean isMoving) {
-        if (playerTank != null && playerTank.isAlive()) {
-            playerTank.setMoving(isMoving);
-        }
+        requestedMoving = isMoving;
     }
 
     public void setPlayerDirection(int direction) {
-        if (playerTank != null && playerTank.isAlive()) {
-            playerTank.setDirection(direction);
+        if (direction != NO_DIRECTION_REQUEST && !isValidDirection(direction)) {
+            throw new IllegalArgumentException("Неверное направление: " + direction);
         }
+        requestedDirection = direction;
+    }
+
+    // Танк знает только четыре направления: по ним индексируются смещения пуль и спрайты
+    private static boolean isValidDirection(int direction) {
+        return direction >= 0 && direction <= 3;
     }
 
     // Внутренний класс для обработки игровой логики
     class GameLogicProcessor {
         private GameModel model;
+        private SpatialGrid enemyGrid = new SpatialGrid(TILE_SIZE, Tank.SIZE);
+        private int regionCount;
+        private int[] regionStart = new int[0];
+        private int[] regionCursor = new int[0];
+        private int[] regionEnemies = new int[0];
+        private EntityStore[] regionBullets = new EntityStore[0];
 
         public GameLogicProcessor(GameModel model) {
             this.model = model;
         }
 
+        void resizeWorld(int width, int height) {
+            enemyGrid.resize(width, height);
+        }
+
         public void updateGameState() {
+            int firstShot = bullets.size();
+            applyPlayerInput();
+            applyAllyInput();
+            savePreviousPositions();
             updateEntities();
             handleMovements();
             handleAIShooting();
+            emitMuzzleFlashes(firstShot);
             checkCollisions();
             cleanupEntities();
             checkGameStatus();
+            advanceTick();
+        }
+
+        private void advanceTick() {
+            currentTick++;
+        }
+
+        // Ввод читается один раз: записывается и применяется одно и то же значение,
+        // даже если EDT меняет его посреди тика
+        private void applyPlayerInput() {
+            int direction = requestedDirection;
+            boolean moving = requestedMoving;
+            boolean shoot = shootRequested;
+            if (recordingMatch) {
+                inputRecorder.recordTick(direction, moving, shoot);
+            }
+            if (!playerTank.isAlive()) {
+                return;
+            }
+            if (isValidDirection(direction)) {
+                playerTank.setDirection(direction);
+            }
+            playerTank.setMoving(moving);
+            if (shoot) {
+                shootRequested = false;
+                playerTank.shoot(bullets, currentTick);
+            }
+        }
+
+        private void applyAllyInput() {
+            for (int i = 0; i < allies.size(); i++) {
+                Tank ally = allies.get(i);
+                int input = allyInput[i];
+                if (!ally.isAlive()) {
+                    continue;
+                }
+                int direction = (input & InputRecorder.DIRECTION_MASK) - 1;
+                if (isValidDirection(direction)) {
+                    ally.setDirection(direction);
+                }
+                ally.setMoving((input & InputRecorder.MOVING_BIT) != 0);
+                if ((input & InputRecorder.SHOOT_BIT) != 0) {
+                    allyInput[i] = (byte) (input & ~InputRecorder.SHOOT_BIT);
+                    ally.shoot(bullets, currentTick);
+                }
+            }
+        }
+
+        private void savePreviousPositions() {
+            playerTanks.savePreviousPositions();
+            enemyTanks.savePreviousPositions();
+            bullets.savePreviousPositions();
         }
 
         private void updateEntities() {
-            bullets.forEach(Bullet::update);
-            explosions.forEach(Explosion::update);
+            bullets.moveAll(Bullet.SPEED);
+            bullets.killOutside(worldWidth, worldHeight);
+            particles.update();
         }
 
-        private void handleMovements() {
+        void handleMovements() {
             if (playerTank.isAlive() && playerTank.isMovingForward()) {
                 processTankMovement(playerTank, PLAYER_MOVEMENT_STEP);
             }
+            for (int i = 0; i < allies.size(); i++) {
+                Tank ally = allies.get(i);
+                if (ally.isAlive() && ally.isMovingForward()) {
+                    processTankMovement(ally, PLAYER_MOVEMENT_STEP);
+                }
+            }
+            Tank target = getPursuitTarget();
+            flowField.update(map, tileOf(target.getX()), tileOf(target.getY()));
+
+            if (isParallelUpdate()) {
+                partitionEnemiesByRegion();
+                ForkJoinPool.commonPool().invoke(new RegionTask(0, regionCount, false));
+                return;
+            }
+
+            for (int i = 0; i < enemies.size(); i++) {
+                updateEnemyMovement(enemies.get(i));
+            }
+        }
+
+        // Враги идут к игроку, а после его гибели — к первому живому союзнику
+        private Tank getPursuitTarget() {
+            if (playerTank.isAlive()) {
+                return playerTank;
+            }
+            for (int i = 0; i < allies.size(); i++) {
+                if (allies.get(i).isAlive()) {
+                    return allies.get(i);
+                }
+            }
+            return playerTank;
+        }
+
+        void handleAIShooting() {
+            if (isParallelUpdate()) {
+                ForkJoinPool.commonPool().invoke(new RegionTask(0, regionCount, true));
+                mergeRegionBullets();
+                return;
+            }
+
+            for (int i = 0; i < enemies.size(); i++) {
+                updateEnemyShooting(enemies.get(i), bullets);
+            }
+        }
 
-            for (Tank enemy : enemies) {
+        // Выстрелы этого тика — пули, добавленные после firstShot; обходятся по порядку
+        // хранилища, поэтому частицы не зависят от распределения врагов по потокам
+        private void emitMuzzleFlashes(int firstShot) {
+            for (int i = firstShot; i < bullets.size(); i++) {
+                particles.emitMuzzleFlash(bullets.getPreviousX(i) + Bullet.SIZE / 2,
+                        bullets.getPreviousY(i) + Bullet.SIZE / 2, bullets.getDirection(i));
+            }
+        }
+
+        private void updateEnemyMovement(Tank enemy) {
+            if (!steerAlongFlowField(enemy)) {
                 enemy.update();
-                if (enemy.isAlive() && enemy.isMovingForward()) {
-                    processTankMovement(enemy, ENEMY_MOVEMENT_STEP);
+            }
+            if (enemy.isAlive() && enemy.isMovingForward()) {
+                processTankMovement(enemy, ENEMY_MOVEMENT_STEP);
+            }
+        }
+
+        private void updateEnemyShooting(Tank enemy, EntityStore target) {
+            if (enemy.isAlive() && enemy.canShoot(currentTick) &&
+                    enemy.getRandom().nextDouble() * 100 < AI_SHOOT_PROBABILITY) {
+                if (isPlayerInLineOfSight(enemy, playerTank) || isAllyInLineOfSight(enemy)) {
+                    enemy.shoot(target, currentTick);
+                }
+            }
+        }
+
+        // Направление берётся из общего поля за O(1); если пути к игроку нет,
+        // танк бродит случайно, как раньше
+        private boolean steerAlongFlowField(Tank enemy) {
+            int column = tileOf(enemy.getX());
+            int row = tileOf(enemy.getY());
+            int direction = flowField.getDirection(column, row);
+            if (direction == FlowField.NO_DIRECTION) {
+                return false;
+            }
+            enemy.setDirection(alignToTileLane(enemy, direction, column, row));
+            return true;
+        }
+
+        // Танк уже тайла, поэтому перед движением вдоль столбца (строки) он сначала
+        // выравнивается по нему, чтобы не цепляться за углы стен
+        private int alignToTileLane(Tank enemy, int direction, int column, int row) {
+            if (direction == 0 || direction == 2) {
+                int laneX = column * TILE_SIZE;
+                if (enemy.getX() < laneX) {
+                    return 1;
+                }
+                if (enemy.getX() > laneX + TILE_SIZE - Tank.SIZE) {
+                    return 3;
+                }
+            } else {
+                int laneY = row * TILE_SIZE;
+                if (enemy.getY() < laneY) {
+                    return 2;
+                }
+                if (enemy.getY() > laneY + TILE_SIZE - Tank.SIZE) {
+                    return 0;
+                }
+            }
+            return direction;
+        }
+
+        private int tileOf(int tankCoordinate) {
+            return (tankCoordinate + Tank.SIZE / 2) / TILE_SIZE;
+        }
+
+        private boolean isParallelUpdate() {
+            return massiveBattle && enemies.size() >= PARALLEL_ENEMY_THRESHOLD;
+        }
+
+        // Враги раскладываются по регионам карты (полосам тайловых строк) сортировкой подсчётом,
+        // внутри региона сохраняется порядок списка
+        private void partitionEnemiesByRegion() {
+            regionCount = map[0].length;
+            if (regionStart.length != regionCount + 1) {
+                regionStart = new int[regionCount + 1];
+                regionCursor = new int[regionCount];
+                regionBullets = new EntityStore[regionCount];
+                for (int region = 0; region < regionCount; region++) {
+                    regionBullets[region] = new EntityStore(Bullet.SIZE, Bullet.SIZE);
                 }
             }
+            if (regionEnemies.length < enemies.size()) {
+                regionEnemies = new int[enemies.size()];
+            }
+
+            Arrays.fill(regionStart, 0);
+            for (int i = 0; i < enemyTanks.size(); i++) {
+                regionStart[regionOf(i) + 1]++;
+            }
+            for (int region = 0; region < regionCount; region++) {
+                regionStart[region + 1] += regionStart[region];
+            }
+            System.arraycopy(regionStart, 0, regionCursor, 0, regionCount);
+            for (int i = 0; i < enemyTanks.size(); i++) {
+                regionEnemies[regionCursor[regionOf(i)]++] = i;
+            }
+        }
+
+        private int regionOf(int enemy) {
+            return Math.min(Math.max((enemyTanks.getY(enemy) + Tank.SIZE / 2) / TILE_SIZE, 0), regionCount - 1);
+        }
+
+        // Пули из буферов регионов сливаются строго по номеру региона,
+        // поэтому результат не зависит от того, какой поток что посчитал
+        private void mergeRegionBullets() {
+            for (int region = 0; region < regionCount; region++) {
+                bullets.addAll(regionBullets[region]);
+                regionBullets[region].clear();
+            }
         }
 
-        private void handleAIShooting() {
-            for (Tank enemy : enemies) {
-                if (enemy.isAlive() && enemy.canShoot() && Math.random() * 100 < AI_SHOOT_PROBABILITY) {
-                    if (isPlayerInLineOfSight(enemy, playerTank)) {
-                        Bullet newBullet = enemy.shoot();
-                        if (newBullet != null) {
-                            bullets.add(newBullet);
+        private class RegionTask extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            private final int firstRegion;
+            private final int endRegion;
+            private final boolean shooting;
+
+            RegionTask(int firstRegion, int endRegion, boolean shooting) {
+                this.firstRegion = firstRegion;
+                this.endRegion = endRegion;
+                this.shooting = shooting;
+            }
+
+            @Override
+            protected void compute() {
+                int enemyCount = regionStart[endRegion] - regionStart[firstRegion];
+                if (endRegion - firstRegion > 1 && enemyCount > ENEMIES_PER_PARALLEL_TASK) {
+                    int middle = (firstRegion + endRegion) >>> 1;
+                    invokeAll(new RegionTask(firstRegion, middle, shooting),
+                            new RegionTask(middle, endRegion, shooting));
+                    return;
+                }
+
+                for (int region = firstRegion; region < endRegion; region++) {
+                    for (int k = regionStart[region]; k < regionStart[region + 1]; k++) {
+                        Tank enemy = enemies.get(regionEnemies[k]);
+                        if (shooting) {
+                            updateEnemyShooting(enemy, regionBullets[region]);
+                        } else {
+                            updateEnemyMovement(enemy);
                         }
                     }
                 }
             }
         }
 
-        private void checkCollisions() {
-            List<Bullet> currentBullets = new ArrayList<>(bullets);
+        void checkCollisions() {
+            enemyGrid.rebuild(enemyTanks);
+            int bulletCount = bullets.size();
 
-            for (Bullet bullet : currentBullets) {
-                if (!bullet.isAlive()) {
+            for (int i = 0; i < bulletCount; i++) {
+                if (!bullets.isAlive(i)) {
                     continue;
                 }
 
-                checkWallCollision(bullet);
+                checkWallCollision(i);
 
-                if (!bullet.isAlive()) {
+                if (!bullets.isAlive(i)) {
                     continue;
                 }
 
-                if (bullet.isPlayerBullet()) {
-                    checkPlayerBulletCollision(bullet);
+                if (bullets.getOwner(i) != EntityStore.OWNER_ENEMY) {
+                    checkPlayerBulletCollision(i);
                 } else {
-                    checkEnemyBulletCollision(bullet);
+                    checkEnemyBulletCollision(i);
                 }
             }
         }
 
-        private void checkWallCollision(Bullet bullet) {
-            Rectangle bulletRect = bullet.getBounds();
+        private void checkWallCollision(int bullet) {
+            int x = bullets.getX(bullet);
+            int y = bullets.getY(bullet);
 
-            for (Rectangle wall : obstacles) {
-                if (bulletRect.intersects(wall)) {
-                    bullet.setAlive(false);
-                    explosions.add(new Explosion(bullet.getX() - 15, bullet.getY() - 15));
-                    return;
-                }
+            if (isWallInArea(x, y, Bullet.SIZE, Bullet.SIZE)) {
+                bullets.kill(bullet);
+                particles.emitExplosion(x + Bullet.SIZE / 2, y + Bullet.SIZE / 2, WALL_HIT_RADIUS);
             }
         }
 
-        private void checkPlayerBulletCollision(Bullet bullet) {
-            Rectangle bulletRect = bullet.getBounds();
+        private void checkPlayerBulletCollision(int bullet) {
+            int enemy = enemyGrid.findIntersecting(bullets.getX(bullet), bullets.getY(bullet), Bullet.SIZE, Bullet.SIZE);
 
-            for (Tank enemy : enemies) {
-                if (enemy.isAlive() && enemy.getBounds().intersects(bulletRect)) {
-                    enemy.takeDamage();
-                    bullet.setAlive(false);
+            if (enemy != SpatialGrid.NOT_FOUND) {
+                enemyTanks.damage(enemy);
+                bullets.kill(bullet);
 
-                    if (!enemy.isAlive()) {
-                        score++;
-                        explosions.add(new Explosion(enemy.getX(), enemy.getY()));
-                    }
+                if (!enemyTanks.isAlive(enemy)) {
+                    score++;
+                    addTankExplosion(enemyTanks, enemy);
+                }
+            }
+        }
+
+        // Сначала игрок (строка 0), затем союзники по порядку
+        private void checkEnemyBulletCollision(int bullet) {
+            int x = bullets.getX(bullet);
+            int y = bullets.getY(bullet);
+            for (int i = 0; i < playerTanks.size(); i++) {
+                if (playerTanks.isAlive(i) && playerTanks.intersects(i, x, y, Bullet.SIZE, Bullet.SIZE)) {
+                    playerTanks.damage(i);
+                    bullets.kill(bullet);
+                    addTankExplosion(playerTanks, i);
                     return;
                 }
             }
         }
 
-        private void checkEnemyBulletCollision(Bullet bullet) {
-            if (playerTank != null && playerTank.isAlive() &&
-                    playerTank.getBounds().intersects(bullet.getBounds())) {
-                playerTank.takeDamage();
-                bullet.setAlive(false);
-                explosions.add(new Explosion(playerTank.getX(), playerTank.getY()));
+        private void addTankExplosion(EntityStore tanks, int tank) {
+            particles.emitExplosion(tanks.getX(tank) + Tank.SIZE / 2, tanks.getY(tank) + Tank.SIZE / 2,
+                    TANK_EXPLOSION_RADIUS);
+        }
+
+        // Удаление без removeIf: он выделяет битовую маску при каждом удалении
+        void cleanupEntities() {
+            removeDeadTanks();
+            bullets.compact();
+        }
+
+        // Хранилище уплотняется с сохранением порядка, виды врагов сдвигаются вместе со строками
+        private void removeDeadTanks() {
+            int alive = 0;
+            for (int i = 0; i < enemies.size(); i++) {
+                if (enemyTanks.isAlive(i)) {
+                    Tank enemy = enemies.get(i);
+                    enemy.setIndex(alive);
+                    enemies.set(alive++, enemy);
+                }
             }
+            enemyTanks.compactInOrder();
+            truncate(enemies, alive);
         }
 
-        private void cleanupEntities() {
-            enemies.removeIf(tank -> !tank.isAlive());
-            bullets.removeIf(bullet -> !bullet.isAlive());
-            explosions.removeIf(exp -> !exp.isAlive());
+        private void truncate(List<?> list, int size) {
+            while (list.size() > size) {
+                list.remove(list.size() - 1);
+            }
         }
 
         private void checkGameStatus() {
@@ -323,50 +885,79 @@ public class GameModel {
                 currentState = GameState.VICTORY;
             }
 
-            if (playerTank != null && !playerTank.isAlive()) {
+            if (playerTank != null && !playerTank.isAlive() && !isAnyAllyAlive()) {
                 currentState = GameState.DEFEAT;
             }
         }
 
         private void processTankMovement(Tank tank, int step) {
-            Rectangle futureBounds = tank.getFutureBounds(step);
+            int futureX = tank.getFutureX(step);
+            int futureY = tank.getFutureY(step);
 
-            if (isOutOfBounds(futureBounds)) {
+            if (isOutOfBounds(futureX, futureY, Tank.SIZE, Tank.SIZE)) {
                 if (!tank.isPlayer()) {
-                    tank.setDirection((int) (Math.random() * 4));
+                    tank.changeRandomDirection();
                 }
                 return;
             }
 
-            if (hasWallCollision(futureBounds)) {
+            if (isWallInArea(futureX, futureY, Tank.SIZE, Tank.SIZE)) {
                 if (!tank.isPlayer()) {
-                    tank.setDirection((int) (Math.random() * 4));
+                    tank.changeRandomDirection();
                 }
                 return;
             }
 
-            tank.setPosition(futureBounds.x, futureBounds.y);
+            tank.setPosition(futureX, futureY);
         }
 
-        private boolean isOutOfBounds(Rectangle bounds) {
-            return bounds.x < 0 || bounds.x + bounds.width > MAP_WIDTH ||
-                    bounds.y < 0 || bounds.y + bounds.height > MAP_HEIGHT;
+        private boolean isOutOfBounds(int x, int y, int width, int height) {
+            return x < 0 || x + width > worldWidth || y < 0 || y + height > worldHeight;
         }
 
-        private boolean hasWallCollision(Rectangle bounds) {
-            for (Rectangle wall : obstacles) {
-                if (bounds.intersects(wall)) {
+        // Снаряд летит от центра стрелка по его строке или столбцу тайлов в сторону, куда смотрит ствол,
+        // поэтому цель должна быть впереди, а стены проверяются вдоль этой линии по таблицам перекрытия
+        private boolean isPlayerInLineOfSight(Tank shooter, Tank target) {
+            int dx = Math.abs(shooter.getX() - target.getX());
+            int dy = Math.abs(shooter.getY() - target.getY());
+            int shooterColumn = (shooter.getX() + Tank.SIZE / 2) / TILE_SIZE;
+            int shooterRow = (shooter.getY() + Tank.SIZE / 2) / TILE_SIZE;
+            int direction = shooter.getDirection();
+            boolean vertical = direction == 0 || direction == 2;
+
+            if (vertical && dx < 50 && dy < LINE_OF_SIGHT_RANGE) {
+                if ((direction == 0) != (target.getY() < shooter.getY())) {
+                    return false;
+                }
+                int targetRow = (target.getY() + Tank.SIZE / 2) / TILE_SIZE;
+                return lineOfSight.isColumnClear(shooterColumn, shooterRow, targetRow);
+            }
+            if (!vertical && dy < 50 && dx < LINE_OF_SIGHT_RANGE) {
+                if ((direction == 3) != (target.getX() < shooter.getX())) {
+                    return false;
+                }
+                int targetColumn = (target.getX() + Tank.SIZE / 2) / TILE_SIZE;
+                return lineOfSight.isRowClear(shooterRow, shooterColumn, targetColumn);
+            }
+            return false;
+        }
+
+        private boolean isAllyInLineOfSight(Tank shooter) {
+            for (int i = 0; i < allies.size(); i++) {
+                if (allies.get(i).isAlive() && isPlayerInLineOfSight(shooter, allies.get(i))) {
                     return true;
                 }
             }
             return false;
         }
 
-        private boolean isPlayerInLineOfSight(Tank shooter, Tank target) {
-            int dx = Math.abs(shooter.getX() - target.getX());
-            int dy = Math.abs(shooter.getY() - target.getY());
-            return (dx < 50 && dy < LINE_OF_SIGHT_RANGE) ||
-                    (dy < 50 && dx < LINE_OF_SIGHT_RANGE);
+        private boolean isAnyAllyAlive() {
+            for (int i = 0; i < allies.size(); i++) {
+                if (allies.get(i).isAlive()) {
+                    return true;
+                }
+            }
+            return false;
         }
     }
 }
\ No newline at end of file
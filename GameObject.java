@@ -1,44 +1,64 @@
 import java.awt.Rectangle;
 
+// Вид на строку EntityStore: координаты, направление, здоровье и жизнь лежат в столбцах хранилища.
+// Строка может сдвинуться при уплотнении хранилища, тогда владелец переставляет index
 public abstract class GameObject {
-    protected int x, y;
-    protected int width, height;
-    protected boolean isAlive = true;
+    protected final EntityStore store;
+    protected int index;
 
-    public GameObject(int x, int y, int width, int height) {
-        this.x = x;
-        this.y = y;
-        this.width = width;
-        this.height = height;
+    public GameObject(EntityStore store, int index) {
+        this.store = store;
+        this.index = index;
     }
 
     public abstract void update();
 
     public Rectangle getBounds() {
-        return new Rectangle(x, y, width, height);
+        return new Rectangle(getX(), getY(), getWidth(), getHeight());
+    }
+
+    // То же, что getBounds().intersects(...), но без создания Rectangle
+    public boolean intersects(int otherX, int otherY, int otherWidth, int otherHeight) {
+        return store.intersects(index, otherX, otherY, otherWidth, otherHeight);
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    void setIndex(int index) {
+        this.index = index;
     }
 
     public int getX() {
-        return x;
+        return store.getX(index);
     }
 
     public int getY() {
-        return y;
+        return store.getY(index);
+    }
+
+    public int getPreviousX() {
+        return store.getPreviousX(index);
+    }
+
+    public int getPreviousY() {
+        return store.getPreviousY(index);
     }
 
     public void setAlive(boolean alive) {
-        this.isAlive = alive;
+        store.setAlive(index, alive);
     }
 
     public boolean isAlive() {
-        return isAlive;
+        return store.isAlive(index);
     }
 
     public int getWidth() {
-        return width;
+        return store.getEntityWidth();
     }
 
     public int getHeight() {
-        return height;
+        return store.getEntityHeight();
     }
 }
\ No newline at end of file
@@ -0,0 +1,553 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+// Авторитетный сервер без окна. Один поток ведёт модель с частотой GameLoop.TICKS_PER_SECOND
+// и через неблокирующий Selector обслуживает все TCP-соединения игроков.
+// Первый игрок управляет playerTank, остальные — союзниками модели.
+// Клиент шлёт байты ввода в формате InputRecorder; в начале тика применяется последний из них,
+// а выстрел не теряется, даже если после него за тик пришли другие байты.
+// Сервер шлёт сообщения: тип (byte), длина данных (int), данные:
+//   MATCH — при подключении и новом матче: номер игрока (short), тема (byte), столбцы и строки (int),
+//   стены по столбцам, по биту на тайл;
+//   STATE — каждый тик: тик (long), состояние (byte), счёт (int), врагов (int), здоровье (byte),
+//   угол видимой игроку области (int x, int y), танки в ней (int число; short x, short y,
+//   byte направление | вид << 2) и пули (int число; short x, short y). Координаты — от угла области.
+// Клиенту, который не успевает читать, состояние тика не шлётся: следующее всё равно полное.
+// Запуск: java -Djava.awt.headless=true GameServer [порт] [враги] [карта] [тайлов]
+public class GameServer implements Runnable {
+    public static final int DEFAULT_PORT = 7420;
+    static final byte MESSAGE_MATCH = 1;
+    static final byte MESSAGE_STATE = 2;
+    static final int HEADER_BYTES = 1 + Integer.BYTES;
+    static final int KIND_SELF = 0;
+    static final int KIND_FRIEND = 1;
+    static final int KIND_ENEMY = 2;
+    private static final int TANK_BYTES = 2 * Short.BYTES + 1;
+    private static final int BULLET_BYTES = 2 * Short.BYTES;
+    private static final int STATE_BYTES = Long.BYTES + 1 + 2 * Integer.BYTES + 1 + 4 * Integer.BYTES;
+    private static final int VIEW_MARGIN = Tank.SIZE;
+    private static final int RESTART_TICKS = 3 * GameLoop.TICKS_PER_SECOND;
+    private static final int REPORT_TICKS = 10 * GameLoop.TICKS_PER_SECOND;
+    // Отстав больше чем на столько тиков, сервер не догоняет, а начинает отсчёт заново
+    private static final int MAX_TICKS_BEHIND = 5;
+    private static final int MEASURED_TICKS = 65_536;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final GameModel model;
+    private final List<Tank> allies;
+    private final int enemyCount;
+    private final int mapId;
+    private final boolean massiveBattle;
+    private final int columns;
+    private final int rows;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final List<Client> clients = new ArrayList<>();
+    // Владелец каждого танка игроков: 0 — playerTank, n — союзник n - 1; null — танк без хозяина
+    private final List<Client> playerOwners = new ArrayList<>();
+    private final PerformanceStats tickStats = new PerformanceStats(MEASURED_TICKS);
+    private final PerformanceStats broadcastStats = new PerformanceStats(MEASURED_TICKS);
+    private final PerformanceStats lateness = new PerformanceStats(MEASURED_TICKS);
+    private volatile boolean running;
+    private volatile boolean statsResetRequested;
+    private boolean reporting;
+    private Thread thread;
+    private int finishedTicks;
+    private long ticks;
+    private long skippedTicks;
+    private long bytesSent;
+    private long bytesReceived;
+    private long droppedStates;
+
+    public GameServer(GameModel model, InetSocketAddress address, int enemyCount, int mapId, boolean massiveBattle,
+                      int columns, int rows) throws IOException {
+        this.model = model;
+        allies = model.getAllies();
+        this.enemyCount = enemyCount;
+        this.mapId = mapId;
+        this.massiveBattle = massiveBattle;
+        this.columns = columns;
+        this.rows = rows;
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        startMatch();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Locale.setDefault(Locale.ROOT);
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int enemyCount = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int mapId = args.length > 2 ? Integer.parseInt(args[2]) : TileMap.PROCEDURAL;
+        int tiles = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+
+        GameServer server = new GameServer(new GameModel(), new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                enemyCount, mapId, enemyCount > 50, tiles, tiles);
+        server.reporting = true;
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "game-server-stop"));
+        System.out.println("Сервер слушает " + server.serverChannel.getLocalAddress());
+        server.start();
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this, "game-server");
+        thread.start();
+    }
+
+    // Останавливает поток сервера и ждёт, пока он закроет соединения
+    public void stop() {
+        Thread serverThread;
+        synchronized (this) {
+            running = false;
+            serverThread = thread;
+            thread = null;
+        }
+        selector.wakeup();
+        if (serverThread != null && serverThread != Thread.currentThread()) {
+            try {
+                serverThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        long nextTick = System.nanoTime();
+        try {
+            while (running) {
+                long wait = nextTick - System.nanoTime();
+                // select ждёт с точностью до миллисекунды, последнюю долю ждём опросом
+                if (wait >= NANOS_PER_MILLI) {
+                    selector.select(wait / NANOS_PER_MILLI);
+                } else {
+                    selector.selectNow();
+                }
+                handleSelectedKeys();
+
+                long now = System.nanoTime();
+                if (now - nextTick < 0) {
+                    continue;
+                }
+                lateness.record(now - nextTick);
+                tick();
+                nextTick += GameLoop.TICK_NANOS;
+                if (System.nanoTime() - nextTick > MAX_TICKS_BEHIND * GameLoop.TICK_NANOS) {
+                    skippedTicks += (System.nanoTime() - nextTick) / GameLoop.TICK_NANOS;
+                    nextTick = System.nanoTime();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Сервер остановлен: " + e.getMessage());
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void tick() {
+        if (statsResetRequested) {
+            statsResetRequested = false;
+            resetStats();
+        }
+        long start = System.nanoTime();
+        applyInputs();
+        model.updateGame();
+        if (model.getCurrentState() != GameModel.GameState.RUNNING && ++finishedTicks >= RESTART_TICKS) {
+            startMatch();
+        }
+        long broadcastStart = System.nanoTime();
+        broadcast();
+        long end = System.nanoTime();
+        broadcastStats.record(end - broadcastStart);
+        tickStats.record(end - start);
+        ticks++;
+        if (reporting && ticks % REPORT_TICKS == 0) {
+            System.out.println(this);
+        }
+    }
+
+    // Новый матч с теми же параметрами; подключённые игроки получают танки в порядке подключения
+    private void startMatch() {
+        model.initGame(enemyCount, mapId, massiveBattle, columns, rows);
+        finishedTicks = 0;
+        playerOwners.clear();
+        playerOwners.add(null);
+        for (Client client : clients) {
+            assignPlayer(client);
+            client.matchPending = true;
+        }
+    }
+
+    // Свободный танк игроков, если есть, иначе новый союзник
+    private void assignPlayer(Client client) {
+        int free = playerOwners.indexOf(null);
+        if (free >= 0) {
+            playerOwners.set(free, client);
+            client.player = free;
+        } else {
+            client.player = model.addAlly() + 1;
+            playerOwners.add(client);
+        }
+    }
+
+    private void applyInputs() {
+        for (int i = 0; i < clients.size(); i++) {
+            Client client = clients.get(i);
+            int input = client.pendingInput;
+            if (client.player == 0) {
+                model.setPlayerDirection((input & InputRecorder.DIRECTION_MASK) - 1);
+                model.setPlayerMoving((input & InputRecorder.MOVING_BIT) != 0);
+                if ((input & InputRecorder.SHOOT_BIT) != 0) {
+                    model.playerShoot();
+                }
+            } else {
+                model.setAllyInput(client.player - 1, (byte) input);
+            }
+            client.pendingInput = (byte) (input & ~InputRecorder.SHOOT_BIT);
+        }
+    }
+
+    private void handleSelectedKeys() throws IOException {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                continue;
+            }
+            Client client = (Client) key.attachment();
+            if (key.isReadable()) {
+                read(client);
+            }
+            if (key.isValid() && key.isWritable()) {
+                send(client);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Client client = new Client(channel);
+        client.key = channel.register(selector, SelectionKey.OP_READ, client);
+        clients.add(client);
+        assignPlayer(client);
+    }
+
+    private void read(Client client) {
+        client.input.clear();
+        int read;
+        try {
+            read = client.channel.read(client.input);
+        } catch (IOException e) {
+            read = -1;
+        }
+        if (read < 0) {
+            disconnect(client);
+            return;
+        }
+        bytesReceived += read;
+        client.input.flip();
+        while (client.input.hasRemaining()) {
+            int input = client.input.get();
+            if (!InputRecorder.isValidInput(input)) {
+                disconnect(client);
+                return;
+            }
+            client.pendingInput = (byte) (input | (client.pendingInput & InputRecorder.SHOOT_BIT));
+        }
+    }
+
+    // Танк ушедшего игрока остаётся в матче и стоит, пока его не займёт новый
+    private void disconnect(Client client) {
+        if (!clients.remove(client)) {
+            return;
+        }
+        if (client.player == 0) {
+            model.setPlayerMoving(false);
+        } else {
+            model.setAllyInput(client.player - 1, (byte) 0);
+        }
+        playerOwners.set(client.player, null);
+        client.key.cancel();
+        try {
+            client.channel.close();
+        } catch (IOException e) {
+            // Соединение и так разорвано
+        }
+    }
+
+    // С конца списка: отключение клиента во время рассылки не сдвигает ещё не обойдённых
+    private void broadcast() {
+        List<Tank> enemies = model.getEnemies();
+        for (int i = clients.size() - 1; i >= 0; i--) {
+            Client client = clients.get(i);
+            if (client.output.hasRemaining()) {
+                droppedStates++;
+                continue;
+            }
+            client.output.clear();
+            if (client.matchPending) {
+                client.matchPending = false;
+                writeMatch(client);
+            }
+            writeState(client, enemies);
+            client.output.flip();
+            send(client);
+        }
+    }
+
+    private void send(Client client) {
+        int before = client.output.position();
+        try {
+            client.channel.write(client.output);
+        } catch (IOException e) {
+            disconnect(client);
+            return;
+        }
+        bytesSent += client.output.position() - before;
+        client.key.interestOps(client.output.hasRemaining()
+                ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+                : SelectionKey.OP_READ);
+    }
+
+    private void writeMatch(Client client) {
+        int mapColumns = model.getMapColumns();
+        int mapRows = model.getMapRows();
+        int start = beginMessage(client, MESSAGE_MATCH,
+                Short.BYTES + 1 + 2 * Integer.BYTES + (mapColumns * mapRows + 7) / 8);
+        ByteBuffer output = client.output;
+        output.putShort((short) client.player)
+                .put((byte) model.getCurrentTheme().ordinal())
+                .putInt(mapColumns)
+                .putInt(mapRows);
+        int bits = 0;
+        int count = 0;
+        for (int column = 0; column < mapColumns; column++) {
+            for (int row = 0; row < mapRows; row++) {
+                if (model.isWallTile(column, row)) {
+                    bits |= 1 << (count & 7);
+                }
+                if ((++count & 7) == 0) {
+                    output.put((byte) bits);
+                    bits = 0;
+                }
+            }
+        }
+        if ((count & 7) != 0) {
+            output.put((byte) bits);
+        }
+        endMessage(client, start);
+    }
+
+    // Только то, что попадает в экран вокруг танка игрока: трафик не растёт с размером карты
+    private void writeState(Client client, List<Tank> enemies) {
+        Tank own = getPlayerTank(client.player);
+        int viewX = own.getX() + Tank.SIZE / 2 - GameModel.VIEWPORT_WIDTH / 2;
+        int viewY = own.getY() + Tank.SIZE / 2 - GameModel.VIEWPORT_HEIGHT / 2;
+        int start = beginMessage(client, MESSAGE_STATE, STATE_BYTES);
+        client.output.putLong(model.getCurrentTick())
+                .put((byte) model.getCurrentState().ordinal())
+                .putInt(model.getScore())
+                .putInt(enemies.size())
+                .put((byte) own.getHealth())
+                .putInt(viewX)
+                .putInt(viewY);
+
+        int countPosition = client.output.position();
+        client.output.putInt(0);
+        int tankCount = 0;
+        for (int player = 0; player < playerOwners.size(); player++) {
+            Tank tank = getPlayerTank(player);
+            int kind = player == client.player ? KIND_SELF : KIND_FRIEND;
+            if (tank.isAlive() && writeTank(client, tank, kind, viewX, viewY)) {
+                tankCount++;
+            }
+        }
+        for (int i = 0; i < enemies.size(); i++) {
+            Tank enemy = enemies.get(i);
+            if (enemy.isAlive() && writeTank(client, enemy, KIND_ENEMY, viewX, viewY)) {
+                tankCount++;
+            }
+        }
+        client.output.putInt(countPosition, tankCount);
+
+        EntityStore bullets = model.getBulletStore();
+        countPosition = client.output.position();
+        ensureRemaining(client, Integer.BYTES);
+        client.output.putInt(0);
+        int bulletCount = 0;
+        for (int i = 0; i < bullets.size(); i++) {
+            int x = bullets.getX(i);
+            int y = bullets.getY(i);
+            if (bullets.isAlive(i) && isInView(x, y, Bullet.SIZE, viewX, viewY)) {
+                ensureRemaining(client, BULLET_BYTES);
+                client.output.putShort((short) (x - viewX)).putShort((short) (y - viewY));
+                bulletCount++;
+            }
+        }
+        client.output.putInt(countPosition, bulletCount);
+        endMessage(client, start);
+    }
+
+    private boolean writeTank(Client client, Tank tank, int kind, int viewX, int viewY) {
+        if (!isInView(tank.getX(), tank.getY(), Tank.SIZE, viewX, viewY)) {
+            return false;
+        }
+        ensureRemaining(client, TANK_BYTES);
+        client.output.putShort((short) (tank.getX() - viewX))
+                .putShort((short) (tank.getY() - viewY))
+                .put((byte) (tank.getDirection() | kind << 2));
+        return true;
+    }
+
+    private boolean isInView(int x, int y, int size, int viewX, int viewY) {
+        return x + size > viewX - VIEW_MARGIN && x < viewX + GameModel.VIEWPORT_WIDTH + VIEW_MARGIN
+                && y + size > viewY - VIEW_MARGIN && y < viewY + GameModel.VIEWPORT_HEIGHT + VIEW_MARGIN;
+    }
+
+    private Tank getPlayerTank(int player) {
+        return player == 0 ? model.getPlayerTank() : allies.get(player - 1);
+    }
+
+    // Длина сообщения дописывается в заголовок в endMessage
+    private int beginMessage(Client client, byte type, int bytes) {
+        ensureRemaining(client, HEADER_BYTES + bytes);
+        client.output.put(type).putInt(0);
+        return client.output.position();
+    }
+
+    private void endMessage(Client client, int start) {
+        client.output.putInt(start - Integer.BYTES, client.output.position() - start);
+    }
+
+    // Буфер клиента растёт под самое большое сообщение и дальше переиспользуется
+    private void ensureRemaining(Client client, int bytes) {
+        ByteBuffer output = client.output;
+        if (output.remaining() >= bytes) {
+            return;
+        }
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(output.capacity() * 2, output.position() + bytes));
+        output.flip();
+        grown.put(output);
+        client.output = grown;
+    }
+
+    private void closeAll() {
+        for (int i = clients.size() - 1; i >= 0; i--) {
+            disconnect(clients.get(i));
+        }
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException e) {
+            System.err.println("Не удалось закрыть сервер: " + e.getMessage());
+        }
+    }
+
+    // Статистика пишется в потоке сервера, поэтому сброс выполняется им же в начале тика
+    public void requestStatsReset() {
+        statsResetRequested = true;
+    }
+
+    private void resetStats() {
+        tickStats.clear();
+        broadcastStats.clear();
+        lateness.clear();
+        ticks = 0;
+        skippedTicks = 0;
+        bytesSent = 0;
+        bytesReceived = 0;
+        droppedStates = 0;
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    // Чтение статистики — после stop() или из потока сервера
+
+    public PerformanceStats getTickStats() {
+        return tickStats;
+    }
+
+    public PerformanceStats getBroadcastStats() {
+        return broadcastStats;
+    }
+
+    public PerformanceStats getLateness() {
+        return lateness;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getSkippedTicks() {
+        return skippedTicks;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    public long getDroppedStates() {
+        return droppedStates;
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("игроков %d, тик %d, %s; тик сервера ср %.3f мс, p99 %.3f мс; "
+                        + "отправлено %d КБ, пропущено состояний %d", clients.size(), model.getCurrentTick(), model.getCurrentState(), tickStats.getAverageMillis(),
+                tickStats.getPercentileMillis(0.99), bytesSent / 1024, droppedStates);
+    }
+
+    private static class Client {
+        final SocketChannel channel;
+        final ByteBuffer input = ByteBuffer.allocate(256);
+        ByteBuffer output = ByteBuffer.allocate(4096);
+        SelectionKey key;
+        int player;
+        byte pendingInput;
+        boolean matchPending = true;
+
+        Client(SocketChannel channel) {
+            this.channel = channel;
+            output.flip();
+        }
+    }
+}
\ No newline at end of file
@@ -1,139 +1,329 @@
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.image.BufferedImage;
+import java.util.List;
 import javax.swing.*;
-import java.awt.geom.AffineTransform;
 
 public class GameView extends JPanel implements ActionListener {
+    public enum RenderMode { PASSIVE, ACTIVE }
+
     private GameModel model;
     private GameController controller;
     private Timer gameTimer;
-    private JLabel scoreLabel;
-    private JLabel healthLabel;
+    private RenderMode renderMode;
+    private ActiveRenderer activeRenderer;
+    private boolean finalMenuButtonShown;
+    private WorldSnapshot snapshot;
+    private long lastSnapshotSequence = -1;
+    private double interpolation;
+    private WorldRenderer worldRenderer = new WorldRenderer();
+    private Camera camera = new Camera(GameModel.VIEWPORT_WIDTH, GameModel.VIEWPORT_HEIGHT);
+    private Rectangle visibleArea = new Rectangle();
+    private Rectangle regionArea = new Rectangle();
+    private BufferedImage frameBuffer;
+    private DirtyRegionTracker dirtyRegions;
+    private int renderedMapVersion = -1;
+    private GameModel.MapTheme renderedTheme;
+    private GameModel.GameState renderedState;
+    private int renderedCameraX = -1;
+    private int renderedCameraY = -1;
+    private int shownScore = 0;
+    private int shownHealth = 3;
+    private int reportedScore = 0;
+    private int reportedHealth = 3;
+    private JPanel infoPanel;
+    private PerformanceStats tickStats = new PerformanceStats(256);
+    private PerformanceStats renderStats = new PerformanceStats(256);
+    private PerformanceOverlay performanceOverlay;
     private final int INFO_PANEL_HEIGHT = 30;
-    private final int TURRET_SIZE_OFFSET = 10;
-    private final int BARREL_LENGTH_OFFSET = 15;
-    private final int BARREL_STROKE_WIDTH = 8;
-    private final int BARREL_TIP_STROKE_WIDTH = 10;
-    private final int EXPLOSION_PHASE_MULTIPLIER = 2;
+    private final int HUD_WIDTH = 400;
+    private final Font HUD_FONT = new Font("Arial", Font.BOLD, 14);
+    private final int FRAME_DELAY_MS = 15;
+    private final int DIRTY_CELL_SIZE = 50;
 
     public GameView(GameModel model, GameController controller) {
+        this(model, controller, RenderMode.PASSIVE);
+    }
+
+    // Симуляция идёт в собственном потоке GameLoop; вид только рисует опубликованные снимки мира
+    public GameView(GameModel model, GameController controller, RenderMode renderMode) {
         this.model = model;
         this.controller = controller;
+        this.renderMode = renderMode;
+        this.performanceOverlay = new PerformanceOverlay(tickStats, renderStats);
         initializeView();
-        startGameTimer();
+
+        if (renderMode == RenderMode.ACTIVE) {
+            startActiveRenderer();
+        } else {
+            startGameTimer();
+        }
     }
 
     private void initializeView() {
-        setPreferredSize(new Dimension(GameModel.MAP_WIDTH, GameModel.MAP_HEIGHT + INFO_PANEL_HEIGHT));
+        setPreferredSize(new Dimension(GameModel.VIEWPORT_WIDTH, GameModel.VIEWPORT_HEIGHT + INFO_PANEL_HEIGHT));
         setFocusable(true);
         setLayout(null);
         setupInfoPanel();
     }
 
     private void setupInfoPanel() {
-        JPanel infoPanel = createInfoPanel();
+        infoPanel = createInfoPanel();
         add(infoPanel);
     }
 
+    // Счёт и здоровье рисуются прямо в панели: без JLabel смена текста не вызывает revalidate
     private JPanel createInfoPanel() {
-        JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        JPanel panel = new JPanel(null) {
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                drawHud((Graphics2D) g);
+            }
+        };
         panel.setBackground(Color.DARK_GRAY);
-        panel.setBounds(0, 0, GameModel.MAP_WIDTH, INFO_PANEL_HEIGHT);
-
-        scoreLabel = new JLabel("Уничтожено: 0");
-        scoreLabel.setForeground(Color.WHITE);
-
-        healthLabel = new JLabel(" | HP: 3");
-        healthLabel.setForeground(Color.WHITE);
-
-        panel.add(scoreLabel);
-        panel.add(healthLabel);
+        panel.setBounds(0, 0, GameModel.VIEWPORT_WIDTH, INFO_PANEL_HEIGHT);
         panel.add(createMenuButton());
 
         return panel;
     }
 
+    private void drawHud(Graphics2D g2d) {
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(HUD_FONT);
+        g2d.drawString("Уничтожено: " + shownScore + " | HP: " + shownHealth, 10, 20);
+    }
+
     private JButton createMenuButton() {
         JButton menuButton = new JButton("Меню");
         menuButton.setBackground(new Color(100, 100, 100));
         menuButton.setForeground(Color.WHITE);
         menuButton.setActionCommand("GO_TO_MENU");
         menuButton.addActionListener(controller);
-        menuButton.setBounds(GameModel.MAP_WIDTH - 100, 2, 80, 26);
+        menuButton.setBounds(GameModel.VIEWPORT_WIDTH - 100, 2, 80, 26);
         return menuButton;
     }
 
     private void startGameTimer() {
-        gameTimer = new Timer(20, this);
+        gameTimer = new Timer(FRAME_DELAY_MS, this);
         gameTimer.start();
     }
 
-    @Override
-    public void actionPerformed(ActionEvent e) {
-        model.updateGame();
-        updateGameInfo();
-        repaint();
+    // Холст занимает игровую область под информационной панелью
+    private void startActiveRenderer() {
+        activeRenderer = new ActiveRenderer(this);
+        Canvas canvas = activeRenderer.getCanvas();
+        canvas.setBounds(0, INFO_PANEL_HEIGHT, GameModel.VIEWPORT_WIDTH, GameModel.VIEWPORT_HEIGHT);
+        add(canvas);
+        activeRenderer.start();
     }
 
-    private void updateGameInfo() {
-        if (model.getPlayerTank() != null) {
-            scoreLabel.setText("Уничтожено: " + model.getScore());
-            healthLabel.setText(" | HP: " + model.getPlayerTank().getHealth());
+    public void stop() {
+        if (gameTimer != null) {
+            gameTimer.stop();
+        }
+        if (activeRenderer != null) {
+            activeRenderer.stop();
         }
     }
 
     @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        Graphics2D g2d = (Graphics2D) g;
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-        g2d.translate(0, INFO_PANEL_HEIGHT);
-        renderGameWorld(g2d);
-        g2d.translate(0, -INFO_PANEL_HEIGHT);
+    public void actionPerformed(ActionEvent e) {
+        repaintDirtyRegions();
+        if (performanceOverlay.refresh(snapshot, System.nanoTime())) {
+            repaintPerformanceOverlay();
+        }
+    }
 
-        renderGameOverlay(g2d);
+    public void togglePerformanceOverlay() {
+        performanceOverlay.toggle();
+        repaintPerformanceOverlay();
     }
 
-    private void renderGameWorld(Graphics2D g2d) {
-        drawMap(g2d);
-        drawExplosions(g2d);
-        drawPlayerTank(g2d);
-        drawEnemyTanks(g2d);
-        drawBullets(g2d);
+    private void repaintPerformanceOverlay() {
+        Rectangle bounds = performanceOverlay.getBounds();
+        repaint(bounds.x, bounds.y + INFO_PANEL_HEIGHT, bounds.width, bounds.height);
     }
 
-    private void renderGameOverlay(Graphics2D g2d) {
-        GameModel.GameState state = model.getCurrentState();
+    // Берёт последний снимок без блокировок. Новый номер снимка означает новый тик:
+    // его длительность идёт в статистику, а изменившиеся счёт и здоровье — в HUD
+    private void acquireSnapshot(long now) {
+        snapshot = model.getSnapshots().acquireLatest();
+        interpolation = snapshot.getInterpolation(now);
+        if (snapshot.getSequence() == lastSnapshotSequence) {
+            return;
+        }
+        lastSnapshotSequence = snapshot.getSequence();
+        if (snapshot.getTickNanos() > 0) {
+            tickStats.record(snapshot.getTickNanos());
+        }
+        if (snapshot.hasPlayer() && (snapshot.getScore() != reportedScore || snapshot.getPlayerHealth() != reportedHealth)) {
+            int score = snapshot.getScore();
+            int health = snapshot.getPlayerHealth();
+            reportedScore = score;
+            reportedHealth = health;
+            runOnEventThread(() -> updateGameInfo(score, health));
+        }
+    }
 
-        if (state == GameModel.GameState.DEFEAT || state == GameModel.GameState.VICTORY) {
-            drawGameEndScreen(g2d, state);
+    private void runOnEventThread(Runnable action) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            action.run();
         } else {
-            removeFinalMenuButton();
+            SwingUtilities.invokeLater(action);
         }
     }
 
-    private void drawGameEndScreen(Graphics2D g2d, GameModel.GameState state) {
-        drawDarkOverlay(g2d);
-        drawEndMessage(g2d, state);
-        ensureFinalMenuButton();
+    // Строка счёта перерисовывается только при изменении значений
+    private void updateGameInfo(int score, int health) {
+        shownScore = score;
+        shownHealth = health;
+        infoPanel.repaint(0, 0, HUD_WIDTH, INFO_PANEL_HEIGHT);
     }
 
-    private void drawDarkOverlay(Graphics2D g2d) {
-        g2d.setColor(new Color(0, 0, 0, 200));
-        g2d.fillRect(0, 0, getWidth(), getHeight());
+    // Просим Swing перерисовать только изменившиеся области; в них кадр уже обновлён
+    private void repaintDirtyRegions() {
+        long start = System.nanoTime();
+        List<Rectangle> regions = updateFrameBuffer();
+        renderStats.record(System.nanoTime() - start);
+        for (Rectangle region : regions) {
+            repaint(region.x, region.y + INFO_PANEL_HEIGHT, region.width, region.height);
+        }
     }
 
-    private void drawEndMessage(Graphics2D g2d, GameModel.GameState state) {
-        String message = (state == GameModel.GameState.VICTORY) ? "ПОБЕДА!" : "ИГРА ОКОНЧЕНА";
-        Color msgColor = (state == GameModel.GameState.VICTORY) ?
-                new Color(150, 255, 150) : new Color(255, 150, 150);
+    // Буфер кадра хранит игровой мир между кадрами. Грязные области сначала заливаются
+    // из кэша карты, затем в них дорисовываются только пересекающие их объекты
+    List<Rectangle> updateFrameBuffer() {
+        if (frameBuffer == null) {
+            frameBuffer = createFrameBuffer();
+            dirtyRegions = new DirtyRegionTracker(GameModel.VIEWPORT_WIDTH, GameModel.VIEWPORT_HEIGHT, DIRTY_CELL_SIZE);
+        }
+        acquireSnapshot(System.nanoTime());
+        updateCamera();
+        boolean detailChanged = worldRenderer.beginFrame(snapshot, interpolation, visibleArea);
+        if (isBackgroundChanged() || detailChanged) {
+            dirtyRegions.markAll();
+        }
+
+        dirtyRegions.beginFrame();
+        recordDrawnBounds();
+        List<Rectangle> regions = dirtyRegions.collectDirtyRegions();
 
-        g2d.setColor(msgColor);
-        g2d.setFont(new Font("Arial", Font.BOLD, 80));
-        FontMetrics fm = g2d.getFontMetrics();
-        g2d.drawString(message, getWidth() / 2 - fm.stringWidth(message) / 2, getHeight() / 2 - 100);
+        // Области в экранных координатах, мир рисуется со сдвигом на камеру
+        Graphics2D g2d = frameBuffer.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.translate(-camera.getX(), -camera.getY());
+        for (Rectangle region : regions) {
+            regionArea.setBounds(region.x + camera.getX(), region.y + camera.getY(), region.width, region.height);
+            g2d.setClip(regionArea);
+            worldRenderer.renderWorld(g2d, snapshot, interpolation, regionArea);
+        }
+        g2d.dispose();
+        worldRenderer.endFrame();
+        return regions;
+    }
+
+    // Камера следует за центром танка игрока в той же интерполированной позиции, в которой он рисуется
+    private void updateCamera() {
+        if (snapshot.hasPlayer()) {
+            camera.follow(snapshot.getPlayerX(interpolation) + Tank.SIZE / 2,
+                    snapshot.getPlayerY(interpolation) + Tank.SIZE / 2,
+                    snapshot.getWorldWidth(), snapshot.getWorldHeight());
+        }
+        visibleArea.setBounds(camera.getX(), camera.getY(), camera.getViewportWidth(), camera.getViewportHeight());
+    }
+
+    private BufferedImage createFrameBuffer() {
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        return configuration != null
+                ? configuration.createCompatibleImage(GameModel.VIEWPORT_WIDTH, GameModel.VIEWPORT_HEIGHT)
+                : new BufferedImage(GameModel.VIEWPORT_WIDTH, GameModel.VIEWPORT_HEIGHT, BufferedImage.TYPE_INT_RGB);
+    }
+
+    // Смена карты, темы, состояния матча (затемнение), сдвиг камеры или смена детализации требует полного кадра
+    private boolean isBackgroundChanged() {
+        boolean changed = renderedMapVersion != snapshot.getMapVersion()
+                || renderedTheme != snapshot.getTheme()
+                || renderedState != snapshot.getState()
+                || renderedCameraX != camera.getX()
+                || renderedCameraY != camera.getY();
+        renderedMapVersion = snapshot.getMapVersion();
+        renderedTheme = snapshot.getTheme();
+        renderedState = snapshot.getState();
+        renderedCameraX = camera.getX();
+        renderedCameraY = camera.getY();
+        return changed;
+    }
+
+    private void recordDrawnBounds() {
+        for (int i = 0; i < snapshot.getParticleCount(); i++) {
+            int size = snapshot.getParticleSize(i);
+            recordBounds(snapshot.getParticleX(i) - size / 2 - 1, snapshot.getParticleY(i) - size / 2 - 1,
+                    size + 3, size + 3);
+        }
+        for (int i = 0; i < snapshot.getTankCount(); i++) {
+            recordBounds(snapshot.getTankX(i, interpolation) - TankSpriteCache.SPRITE_MARGIN,
+                    snapshot.getTankY(i, interpolation) - TankSpriteCache.SPRITE_MARGIN,
+                    TankSpriteCache.SPRITE_SIZE, TankSpriteCache.SPRITE_SIZE);
+        }
+        for (int i = 0; i < snapshot.getBulletCount(); i++) {
+            recordBounds(snapshot.getBulletX(i, interpolation) - WorldRenderer.BULLET_BOUNDS_MARGIN,
+                    snapshot.getBulletY(i, interpolation) - WorldRenderer.BULLET_BOUNDS_MARGIN,
+                    WorldRenderer.BULLET_BOUNDS_SIZE, WorldRenderer.BULLET_BOUNDS_SIZE);
+        }
+    }
+
+    // Мировые координаты переводятся в экранные; всё, что вне экрана, не учитывается
+    private void recordBounds(int x, int y, int width, int height) {
+        if (WorldRenderer.touches(visibleArea, x, y, width, height)) {
+            dirtyRegions.addDrawn(x - camera.getX(), y - camera.getY(), width, height);
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (renderMode == RenderMode.ACTIVE) {
+            return;
+        }
+        if (frameBuffer == null) {
+            updateFrameBuffer();
+        }
+        Graphics2D g2d = (Graphics2D) g;
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        // Swing уже ограничил отрисовку грязными областями, копируется только их содержимое
+        g2d.drawImage(frameBuffer, 0, INFO_PANEL_HEIGHT, null);
+        worldRenderer.renderGameOverlay(g2d, snapshot, getWidth(), getHeight());
+        updateFinalMenuButton(WorldRenderer.isGameOver(snapshot));
+
+        g2d.translate(0, INFO_PANEL_HEIGHT);
+        performanceOverlay.draw(g2d);
+        g2d.translate(0, -INFO_PANEL_HEIGHT);
+    }
+
+    // Кадр активного режима: вся область холста — видимая часть мира
+    void renderFrame(Graphics2D g2d) {
+        long start = System.nanoTime();
+        acquireSnapshot(start);
+        updateCamera();
+        worldRenderer.renderFrame(g2d, snapshot, interpolation, camera);
+        updateFinalMenuButton(WorldRenderer.isGameOver(snapshot));
+
+        performanceOverlay.refresh(snapshot, start);
+        performanceOverlay.draw(g2d);
+        renderStats.record(System.nanoTime() - start);
+    }
+
+    // Кнопка — компонент Swing, поэтому меняется только на EDT и только при смене состояния
+    private void updateFinalMenuButton(boolean gameOver) {
+        if (gameOver == finalMenuButtonShown) {
+            return;
+        }
+        finalMenuButtonShown = gameOver;
+        runOnEventThread(gameOver ? this::ensureFinalMenuButton : this::removeFinalMenuButton);
     }
 
     private void ensureFinalMenuButton() {
@@ -154,7 +344,8 @@ public class GameView extends JPanel implements ActionListener {
 
     private void addFinalMenuButton() {
         JButton finalMenuButton = createFinalMenuButton();
-        add(finalMenuButton);
+        // Поверх остальных компонентов, в том числе холста активного режима
+        add(finalMenuButton, 0);
         revalidate();
     }
 
@@ -180,227 +371,4 @@ public class GameView extends JPanel implements ActionListener {
             }
         }
     }
-
-    private void drawMap(Graphics2D g2d) {
-        Color[] themeColors = getMapThemeColors();
-        g2d.setColor(themeColors[0]); // grass/desert color
-        g2d.fillRect(0, 0, GameModel.MAP_WIDTH, GameModel.MAP_HEIGHT);
-        drawObstacles(g2d, themeColors[1]);
-    }
-
-    private Color[] getMapThemeColors() {
-        if (model.getCurrentTheme() == GameModel.MapTheme.DESERT) {
-            return new Color[]{
-                    new Color(210, 180, 140),  // desert color
-                    new Color(139, 69, 19)     // wall color
-            };
-        } else {
-            return new Color[]{
-                    new Color(34, 139, 34),    // grass color
-                    new Color(105, 105, 105)   // wall color
-            };
-        }
-    }
-
-    private void drawObstacles(Graphics2D g2d, Color wallColor) {
-        g2d.setColor(wallColor);
-        for (Rectangle wall : model.getObstacles()) {
-            g2d.fill(wall);
-            g2d.setColor(wallColor.darker());
-            g2d.draw(wall);
-            g2d.setColor(wallColor);
-        }
-    }
-
-    private void drawExplosions(Graphics2D g2d) {
-        for (Explosion exp : model.getExplosions()) {
-            drawExplosion(g2d, exp);
-        }
-    }
-
-    private void drawPlayerTank(Graphics2D g2d) {
-        if (model.getPlayerTank() != null) {
-            drawTank(g2d, model.getPlayerTank());
-        }
-    }
-
-    private void drawEnemyTanks(Graphics2D g2d) {
-        for (Tank enemy : model.getEnemies()) {
-            drawTank(g2d, enemy);
-        }
-    }
-
-    private void drawBullets(Graphics2D g2d) {
-        for (Bullet bullet : model.getBullets()) {
-            drawBullet(g2d, bullet);
-        }
-    }
-
-    private void drawTank(Graphics2D g2d, Tank tank) {
-        if (!tank.isAlive()) {
-            return;
-        }
-
-        AffineTransform oldTransform = g2d.getTransform();
-        applyTankRotation(g2d, tank);
-        drawTankComponents(g2d, tank);
-        g2d.setTransform(oldTransform);
-    }
-
-    private void applyTankRotation(Graphics2D g2d, Tank tank) {
-        int centerX = tank.getX() + Tank.SIZE / 2;
-        int centerY = tank.getY() + Tank.SIZE / 2;
-        double rotationAngle = getRotationAngle(tank.getDirection());
-
-        g2d.rotate(rotationAngle, centerX, centerY);
-    }
-
-    private double getRotationAngle(int direction) {
-        switch (direction) {
-            case 1: return Math.toRadians(90);
-            case 2: return Math.toRadians(180);
-            case 3: return Math.toRadians(270);
-            default: return 0;
-        }
-    }
-
-    private void drawTankComponents(Graphics2D g2d, Tank tank) {
-        int x = tank.getX();
-        int y = tank.getY();
-        Color tankColor = tank.getColor();
-
-        drawTracks(g2d, x, y);
-        drawHull(g2d, x, y, tankColor);
-        drawTurret(g2d, x, y, tankColor);
-        drawHatch(g2d, x, y);
-        drawBarrel(g2d, x, y);
-    }
-
-    private void drawTracks(Graphics2D g2d, int x, int y) {
-        g2d.setColor(new Color(50, 50, 50));
-        g2d.fillRect(x - 8, y, 10, Tank.SIZE);
-        g2d.fillRect(x + Tank.SIZE - 2, y, 10, Tank.SIZE);
-        drawWheels(g2d, x, y);
-    }
-
-    private void drawWheels(Graphics2D g2d, int x, int y) {
-        g2d.setColor(new Color(80, 80, 80));
-        for (int i = 0; i < 4; i++) {
-            g2d.fillOval(x - 5, y + 4 + i * 10, 4, 4);
-            g2d.fillOval(x + Tank.SIZE + 1, y + 4 + i * 10, 4, 4);
-        }
-    }
-
-    private void drawHull(Graphics2D g2d, int x, int y, Color tankColor) {
-        g2d.setColor(tankColor);
-        g2d.fillRect(x, y + 2, Tank.SIZE, Tank.SIZE - 4);
-
-        g2d.setColor(tankColor.brighter());
-        g2d.fillRect(x + 5, y + 5, Tank.SIZE - 10, Tank.SIZE - 10);
-
-        g2d.setColor(Color.BLACK);
-        g2d.drawRect(x, y + 2, Tank.SIZE, Tank.SIZE - 4);
-    }
-
-    private void drawTurret(Graphics2D g2d, int x, int y, Color tankColor) {
-        int turretSize = Tank.SIZE - TURRET_SIZE_OFFSET;
-        int turretX = x + 5;
-        int turretY = y + 5;
-
-        g2d.setColor(tankColor.brighter());
-        g2d.fillOval(turretX, turretY, turretSize, turretSize);
-
-        g2d.setColor(Color.BLACK);
-        g2d.drawOval(turretX, turretY, turretSize, turretSize);
-    }
-
-    private void drawHatch(Graphics2D g2d, int x, int y) {
-        int centerX = x + Tank.SIZE / 2;
-        int centerY = y + Tank.SIZE / 2;
-
-        g2d.setColor(new Color(30, 30, 30));
-        g2d.fillOval(centerX - 5, centerY - 5, 10, 10);
-    }
-
-    private void drawBarrel(Graphics2D g2d, int x, int y) {
-        int centerX = x + Tank.SIZE / 2;
-        int centerY = y + Tank.SIZE / 2;
-        int barrelLength = Tank.SIZE / 2 + BARREL_LENGTH_OFFSET;
-
-        drawBarrelMain(g2d, centerX, centerY, barrelLength);
-        drawBarrelTip(g2d, centerX, centerY, barrelLength);
-        resetStroke(g2d);
-    }
-
-    private void drawBarrelMain(Graphics2D g2d, int centerX, int centerY, int barrelLength) {
-        // Отрисовка ровного цилиндрического ствола с закруглёнными концами
-        int barrelWidth = BARREL_STROKE_WIDTH;
-
-        // Основная часть ствола
-        g2d.setColor(new Color(60, 60, 60)); // Тёмно-серый для ствола
-        g2d.setStroke(new BasicStroke(barrelWidth, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-
-        // Рисуем линию с закруглёнными концами
-        g2d.drawLine(centerX, centerY, centerX, centerY - barrelLength);
-
-        // Добавляем тень/градиент для объёма
-        g2d.setColor(new Color(80, 80, 80)); // Светлее для верхней части
-        g2d.setStroke(new BasicStroke(barrelWidth - 2, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-        g2d.drawLine(centerX, centerY - 5, centerX, centerY - barrelLength + 5);
-    }
-
-    private void drawBarrelTip(Graphics2D g2d, int centerX, int centerY, int barrelLength) {
-        // Толстый кончик пушки (дульный тормоз/срез)
-        int tipWidth = BARREL_TIP_STROKE_WIDTH;
-        int tipLength = 8; // Длина кончика
-
-        g2d.setColor(new Color(40, 40, 40)); // Очень тёмный для кончика
-        g2d.setStroke(new BasicStroke(tipWidth, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER));
-
-        // Вертикальная линия кончика
-        g2d.drawLine(centerX, centerY - barrelLength, centerX, centerY - barrelLength - tipLength);
-
-        // Горизонтальные линии для объёмного эффекта (срез)
-        g2d.setStroke(new BasicStroke(3, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER));
-        g2d.setColor(new Color(30, 30, 30)); // Ещё темнее
-
-        // Верхняя горизонтальная линия (торцевая часть)
-        int tipY = centerY - barrelLength - tipLength / 2;
-        g2d.drawLine(centerX - tipWidth/2 + 1, tipY, centerX + tipWidth/2 - 1, tipY);
-
-        // Дополнительные детали для реалистичности
-        g2d.setColor(new Color(100, 100, 100)); // Светлые детали
-        g2d.setStroke(new BasicStroke(1.5f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER));
-
-        // Блеск на кончике
-        g2d.drawLine(centerX - tipWidth/4, centerY - barrelLength - 2,
-                centerX - tipWidth/4, centerY - barrelLength - tipLength + 2);
-    }
-
-    private void resetStroke(Graphics2D g2d) {
-        g2d.setStroke(new BasicStroke(1f));
-    }
-
-    private void drawBullet(Graphics2D g2d, Bullet bullet) {
-        g2d.setColor(Color.ORANGE);
-        g2d.fillOval(bullet.getX() - 2, bullet.getY() - 2, 10, 10);
-        g2d.setColor(Color.YELLOW);
-        g2d.fillOval(bullet.getX(), bullet.getY(), 6, 6);
-    }
-
-    private void drawExplosion(Graphics2D g2d, Explosion exp) {
-        int phase = exp.getPhase();
-        int x = exp.getX();
-        int y = exp.getY();
-        int size = exp.getWidth();
-
-        g2d.setColor(Color.RED);
-        g2d.fillOval(x + phase * EXPLOSION_PHASE_MULTIPLIER,
-                y + phase * EXPLOSION_PHASE_MULTIPLIER,
-                size - phase * 4,
-                size - phase * 4);
-
-        g2d.setColor(Color.ORANGE);
-        g2d.drawOval(x, y, size, size);
-    }
 }
\ No newline at end of file
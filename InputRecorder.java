@@ -0,0 +1,128 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Запись ввода игрока для повтора матчей. Файл только дописывается: заголовок файла, затем для
+// каждого матча маркер с зерном и параметрами старта (для карты из файла — ещё и путь к ней)
+// и по одному байту на тик:
+// биты 0–2 — направление + 1 (0 — направление не запрошено), бит 3 — движение, бит 4 — выстрел.
+// Байт тика не бывает больше 0x1F, поэтому маркер матча 0xFF однозначен
+public class InputRecorder implements Closeable {
+    static final int MAGIC = 0x54575250; // "TWRP"
+    static final short VERSION = 2;
+    // Первая версия не знала карт из файлов; такие записи повтор ещё читает
+    static final short FIRST_VERSION = 1;
+    static final byte MATCH_MARKER = (byte) 0xFF;
+    static final int DIRECTION_MASK = 0x07;
+    static final int MOVING_BIT = 0x08;
+    static final int SHOOT_BIT = 0x10;
+    // Направление хранится как direction + 1: 0 — без смены, 1..4 — вверх, вправо, вниз, влево
+    static final int MAX_DIRECTION_CODE = 4;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    public InputRecorder(Path path) throws IOException {
+        this.path = path;
+        // READ вместе с APPEND открыть нельзя, поэтому дописывание — с позиции конца файла
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            buffer.putInt(MAGIC).putShort(VERSION);
+        } else {
+            checkFileHeader();
+            channel.position(channel.size());
+        }
+    }
+
+    // Дописывать можно только в запись того же формата
+    private void checkFileHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + Short.BYTES);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < header.capacity() || header.getInt() != MAGIC || header.getShort() != VERSION) {
+            channel.close();
+            throw new IOException("Файл не является записью ввода версии " + VERSION + ": " + path);
+        }
+    }
+
+    // Вызывается моделью под её замком при старте матча; данные прошлого матча сбрасываются на диск
+    synchronized void beginMatch(long seed, int enemyCount, TileMap tileMap, boolean massiveBattle) {
+        if (!channel.isOpen()) {
+            return;
+        }
+        drain();
+        buffer.put(MATCH_MARKER)
+                .putLong(seed)
+                .putInt(enemyCount)
+                .put((byte) tileMap.getMapId())
+                .put((byte) (massiveBattle ? 1 : 0))
+                .putInt(tileMap.getColumns())
+                .putInt(tileMap.getRows());
+        if (tileMap.getMapId() == TileMap.FROM_FILE) {
+            byte[] source = tileMap.getSource().toAbsolutePath().toString().getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) source.length).put(source);
+        }
+    }
+
+    // Вызывается в начале каждого тика с вводом, который тик применит
+    synchronized void recordTick(int direction, boolean moving, boolean shoot) {
+        if (!channel.isOpen()) {
+            return;
+        }
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put(encode(direction, moving, shoot));
+    }
+
+    // Байт тика из сети или файла: лишние биты и коды направлений 5..7 недопустимы
+    static boolean isValidInput(int input) {
+        return (input & ~(DIRECTION_MASK | MOVING_BIT | SHOOT_BIT)) == 0
+                && (input & DIRECTION_MASK) <= MAX_DIRECTION_CODE;
+    }
+
+    static byte encode(int direction, boolean moving, boolean shoot) {
+        return (byte) ((direction + 1) | (moving ? MOVING_BIT : 0) | (shoot ? SHOOT_BIT : 0));
+    }
+
+    public synchronized void flush() {
+        if (channel.isOpen()) {
+            drain();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        drain();
+        channel.force(false);
+        channel.close();
+    }
+
+    private void drain() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось дописать запись ввода " + path, e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+}
\ No newline at end of file
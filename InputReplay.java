@@ -0,0 +1,128 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+// Повтор записи ввода без окна и без пауз между тиками. Каждый матч стартует с записанным зерном
+// и параметрами (карты из файлов читаются заново по записанному пути),
+// затем тики идут подряд с записанным вводом. Для поиска просадок печатается
+// время тиков и номер самого медленного.
+// Запуск: java -Djava.awt.headless=true InputReplay файл
+public class InputReplay {
+    private static final int MAX_MEASURED_TICKS = 65_536;
+
+    private final MappedByteBuffer record;
+    private final short version;
+    private final GameModel model = new GameModel(0);
+    private final PerformanceStats tickStats = new PerformanceStats(MAX_MEASURED_TICKS);
+
+    public InputReplay(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Запись больше 2 ГБ не поддерживается: " + path);
+            }
+            record = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (record.remaining() < Integer.BYTES + Short.BYTES || record.getInt() != InputRecorder.MAGIC) {
+            throw new IOException("Файл не является записью ввода: " + path);
+        }
+        version = record.getShort();
+        if (version < InputRecorder.FIRST_VERSION || version > InputRecorder.VERSION) {
+            throw new IOException("Версия записи " + version + " не поддерживается: " + path);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Locale.setDefault(Locale.ROOT);
+        if (args.length < 1) {
+            System.err.println("Использование: java InputReplay файл");
+            System.exit(2);
+        }
+
+        InputReplay replay = new InputReplay(Paths.get(args[0]));
+        long startTime = System.nanoTime();
+        long ticks = replay.run();
+        long elapsed = System.nanoTime() - startTime;
+        System.out.printf("Всего: %d тиков за %.1f мс (%.0f тиков/с, в %.0f раз быстрее реального времени)%n",
+                ticks, elapsed / 1e6, ticks * 1e9 / elapsed, ticks * (double) GameLoop.TICK_NANOS / elapsed);
+    }
+
+    // Возвращает число прогнанных тиков
+    public long run() throws IOException {
+        long totalTicks = 0;
+        int match = 0;
+        while (record.hasRemaining()) {
+            if (record.get() != InputRecorder.MATCH_MARKER) {
+                throw new IOException("Повреждённая запись: нет маркера матча в позиции " + (record.position() - 1));
+            }
+            match++;
+            totalTicks += replayMatch(match);
+        }
+        return totalTicks;
+    }
+
+    private long replayMatch(int match) throws IOException {
+        long seed = record.getLong();
+        int enemyCount = record.getInt();
+        int mapId = record.get();
+        boolean massiveBattle = record.get() != 0;
+        int columns = record.getInt();
+        int rows = record.getInt();
+        TileMap tileMap = mapId == TileMap.FROM_FILE && version > InputRecorder.FIRST_VERSION
+                ? TileMapFile.read(Paths.get(readString()))
+                : TileMap.generate(mapId, columns, rows, seed);
+
+        model.initGame(enemyCount, tileMap, massiveBattle, seed);
+        tickStats.clear();
+        long ticks = 0;
+        long slowestTick = -1;
+        long slowestNanos = 0;
+        long matchStart = System.nanoTime();
+        while (record.hasRemaining() && record.get(record.position()) != InputRecorder.MATCH_MARKER) {
+            int input = record.get();
+            if (model.getCurrentState() != GameModel.GameState.RUNNING) {
+                System.out.printf("Матч %d: запись расходится с симуляцией — матч окончен на тике %d%n", match, ticks);
+                skipToNextMatch();
+                break;
+            }
+            model.applyRecordedInput((input & InputRecorder.DIRECTION_MASK) - 1,
+                    (input & InputRecorder.MOVING_BIT) != 0, (input & InputRecorder.SHOOT_BIT) != 0);
+
+            long start = System.nanoTime();
+            model.updateGame();
+            long tickNanos = System.nanoTime() - start;
+            tickStats.record(tickNanos);
+            if (tickNanos > slowestNanos) {
+                slowestNanos = tickNanos;
+                slowestTick = ticks;
+            }
+            ticks++;
+        }
+        long elapsed = System.nanoTime() - matchStart;
+
+        System.out.printf("Матч %d: зерно %d, карта %s, врагов %d%s%n", match, seed, tileMap, enemyCount,
+                massiveBattle ? ", массовое сражение" : "");
+        System.out.printf("  %d тиков за %.1f мс; тик: ср %.3f мс, p99 %.3f мс, самый медленный №%d — %.3f мс%n",
+                ticks, elapsed / 1e6, tickStats.getAverageMillis(), tickStats.getPercentileMillis(0.99),
+                slowestTick, slowestNanos / 1e6);
+        System.out.printf("  Итог: %s, счёт %d, врагов осталось %d%n", model.getCurrentState(), model.getScore(),
+                model.getEnemies().size());
+        return ticks;
+    }
+
+    private String readString() {
+        byte[] bytes = new byte[record.getShort() & 0xFFFF];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void skipToNextMatch() {
+        while (record.hasRemaining() && record.get(record.position()) != InputRecorder.MATCH_MARKER) {
+            record.get();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+// Выбор детализации кадра. Упрощённая включается, когда видимых танков и пуль больше ENTER_ENTITIES
+// или несколько кадров подряд превышают бюджет времени. Обратно — когда объектов меньше EXIT_ENTITIES
+// и кадры CALM_FRAMES подряд укладываются в половину бюджета: разрыв между порогами не даёт
+// детализации мигать на границе. После перегрузки по времени нужна ещё и заметно меньшая сцена,
+// иначе полная детализация пробуется снова лишь через RETRY_FRAMES спокойных кадров
+public class LevelOfDetail {
+    private static final int ENTER_ENTITIES = Integer.getInteger("tankwar.lod.enter", 400);
+    private static final int EXIT_ENTITIES = Integer.getInteger("tankwar.lod.exit", 300);
+    private static final long FRAME_BUDGET_NANOS = Long.getLong("tankwar.lod.budget", 8) * 1_000_000L;
+    private static final int OVER_BUDGET_FRAMES = 3;
+    private static final int CALM_FRAMES = 60;
+    private static final int RETRY_FRAMES = 600;
+    private static final double OVERLOAD_EXIT_SHARE = 0.75;
+
+    private boolean simplified;
+    private int overBudgetFrames;
+    private int calmFrames;
+    // Число объектов, при котором кадр перестал укладываться в бюджет
+    private int overloadEntities = Integer.MAX_VALUE;
+
+    // Вызывается раз в кадр; true, если детализация сменилась и кадр нужно перерисовать целиком
+    public boolean update(int visibleEntities, long lastFrameNanos) {
+        overBudgetFrames = lastFrameNanos > FRAME_BUDGET_NANOS ? overBudgetFrames + 1 : 0;
+        if (!simplified) {
+            if (visibleEntities > ENTER_ENTITIES || overBudgetFrames >= OVER_BUDGET_FRAMES) {
+                if (overBudgetFrames >= OVER_BUDGET_FRAMES) {
+                    overloadEntities = visibleEntities;
+                }
+                return setSimplified(true);
+            }
+            return false;
+        }
+
+        boolean calm = visibleEntities < EXIT_ENTITIES && lastFrameNanos < FRAME_BUDGET_NANOS / 2;
+        calmFrames = calm ? calmFrames + 1 : 0;
+        int requiredFrames = visibleEntities < overloadEntities * OVERLOAD_EXIT_SHARE ? CALM_FRAMES : RETRY_FRAMES;
+        if (calmFrames >= requiredFrames) {
+            overloadEntities = Integer.MAX_VALUE;
+            return setSimplified(false);
+        }
+        return false;
+    }
+
+    private boolean setSimplified(boolean value) {
+        simplified = value;
+        overBudgetFrames = 0;
+        calmFrames = 0;
+        return true;
+    }
+
+    public boolean isSimplified() {
+        return simplified;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+// Таблицы перекрытия для проверки прямой видимости за O(1).
+// Для каждой строки и каждого столбца тайловой карты отрезки без стен нумеруются;
+// два тайла одной строки (столбца) видят друг друга, если лежат в одном отрезке
+public class LineOfSight {
+    private static final int WALL = -1;
+
+    private int columns;
+    private int rows;
+    private int[] rowSegments = new int[0];
+    private int[] columnSegments = new int[0];
+
+    public void rebuild(int[][] map) {
+        columns = map.length;
+        rows = map[0].length;
+        if (rowSegments.length != columns * rows) {
+            rowSegments = new int[columns * rows];
+            columnSegments = new int[columns * rows];
+        }
+
+        int segment = 0;
+        for (int row = 0; row < rows; row++) {
+            segment++;
+            for (int column = 0; column < columns; column++) {
+                if (map[column][row] == 1) {
+                    rowSegments[row * columns + column] = WALL;
+                    segment++;
+                } else {
+                    rowSegments[row * columns + column] = segment;
+                }
+            }
+        }
+
+        segment = 0;
+        for (int column = 0; column < columns; column++) {
+            segment++;
+            for (int row = 0; row < rows; row++) {
+                if (map[column][row] == 1) {
+                    columnSegments[column * rows + row] = WALL;
+                    segment++;
+                } else {
+                    columnSegments[column * rows + row] = segment;
+                }
+            }
+        }
+    }
+
+    public boolean isRowClear(int row, int fromColumn, int toColumn) {
+        if (!isInside(fromColumn, row) || !isInside(toColumn, row)) {
+            return false;
+        }
+        int segment = rowSegments[row * columns + fromColumn];
+        return segment != WALL && segment == rowSegments[row * columns + toColumn];
+    }
+
+    public boolean isColumnClear(int column, int fromRow, int toRow) {
+        if (!isInside(column, fromRow) || !isInside(column, toRow)) {
+            return false;
+        }
+        int segment = columnSegments[column * rows + fromRow];
+        return segment != WALL && segment == columnSegments[column * rows + toRow];
+    }
+
+    private boolean isInside(int column, int row) {
+        return column >= 0 && column < columns && row >= 0 && row < rows;
+    }
+}
\ No newline at end of file
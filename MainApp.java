@@ -1,14 +1,19 @@
 import javax.swing.*;
 import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 public class MainApp extends JFrame {
     private static final String GAME_TITLE = "Танковый Бой";
     private static final int WINDOW_HEIGHT_OFFSET = 40;
+    private static final String RENDER_MODE_PROPERTY = "tankwar.render";
+    private static final String RECORD_PROPERTY = "tankwar.record";
 
     private CardLayout cardLayout = new CardLayout();
     private JPanel mainPanel = new JPanel(cardLayout);
     private GameModel model;
     private GameController controller;
+    private GameLoop gameLoop;
     private GameView gameView;
     private MenuView menuView;
 
@@ -32,20 +37,55 @@ public class MainApp extends JFrame {
 
     private void initializeComponents() {
         model = new GameModel();
-        controller = new GameController(model, this);
+        startInputRecording();
+        controller = new GameController(model, this, new MapLibrary());
 
         menuView = new MenuView(controller);
         menuView.setup(controller);
 
-        gameView = new GameView(model, controller);
+        gameView = new GameView(model, controller, getRenderMode());
         controller.setViews(gameView, menuView);
+
+        // Симуляция в собственном потоке; вне матча тик модели ничего не делает
+        gameLoop = new GameLoop(model, GameLoop.Pacing.REAL_TIME);
+        gameLoop.start();
+    }
+
+    // -Dtankwar.record=файл дописывает в файл ввод всех матчей для повтора через InputReplay
+    private void startInputRecording() {
+        String path = System.getProperty(RECORD_PROPERTY);
+        if (path == null) {
+            return;
+        }
+        try {
+            InputRecorder recorder = new InputRecorder(Paths.get(path));
+            model.setInputRecorder(recorder);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> closeRecorder(recorder), "input-recorder"));
+        } catch (IOException e) {
+            System.err.println("Запись ввода отключена: " + e.getMessage());
+        }
+    }
+
+    private static void closeRecorder(InputRecorder recorder) {
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            System.err.println("Не удалось закрыть запись ввода: " + e.getMessage());
+        }
+    }
+
+    // -Dtankwar.render=active включает отрисовку через BufferStrategy в отдельном потоке
+    private GameView.RenderMode getRenderMode() {
+        return "active".equalsIgnoreCase(System.getProperty(RENDER_MODE_PROPERTY))
+                ? GameView.RenderMode.ACTIVE
+                : GameView.RenderMode.PASSIVE;
     }
 
     private void setupUI() {
         mainPanel.add(menuView, "Menu");
         mainPanel.add(gameView, "Game");
         add(mainPanel);
-        setSize(GameModel.MAP_WIDTH, GameModel.MAP_HEIGHT + WINDOW_HEIGHT_OFFSET);
+        setSize(GameModel.VIEWPORT_WIDTH, GameModel.VIEWPORT_HEIGHT + WINDOW_HEIGHT_OFFSET);
     }
 
     private void displayWindow() {
@@ -0,0 +1,284 @@
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Процедурные арены. Карта режется на куски примерно по CHUNK_TILES тайлов; в каждом куске —
+// комната с укрытиями и коридоры шириной CORRIDOR_WIDTH к дверям на общих с соседями границах.
+// Куски генерируются параллельно (fork/join) и пишут только в свои тайлы. Случайные числа куска
+// и место двери выводятся из зерна и номера куска (границы), поэтому карта зависит только от зерна,
+// но не от числа потоков. Последний проход заделывает всё, что недостижимо от игрока
+public final class MapGenerator {
+    public static final int MIN_COLUMNS = GameModel.SCREEN_MAP_COLUMNS;
+    public static final int MIN_ROWS = GameModel.SCREEN_MAP_ROWS;
+    public static final int MAX_TILES = GameModel.HUGE_MAP_TILES;
+    private static final int CHUNK_TILES = 12;
+    private static final int CHUNKS_PER_TASK = 64;
+    private static final int CORRIDOR_WIDTH = 2;
+    // Столбы укрытий стоят в узлах сетки с шагом COVER_STEP и не перекрывают проходы
+    private static final int COVER_STEP = 3;
+    private static final int COVER_PERCENT = 35;
+    private static final long CHUNK_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final long DOOR_SALT = 0x632BE59BD9B4E019L;
+
+    private final int columns;
+    private final int rows;
+    private final long seed;
+    private final int chunksX;
+    private final int chunksY;
+    private final boolean[] walls;
+    // Центр комнаты каждого куска: через него проходят все коридоры куска
+    private final int[] hubColumn;
+    private final int[] hubRow;
+
+    private MapGenerator(int columns, int rows, long seed) {
+        this.columns = columns;
+        this.rows = rows;
+        this.seed = seed;
+        chunksX = Math.max(1, columns / CHUNK_TILES);
+        chunksY = Math.max(1, rows / CHUNK_TILES);
+        walls = new boolean[columns * rows];
+        hubColumn = new int[chunksX * chunksY];
+        hubRow = new int[chunksX * chunksY];
+    }
+
+    // Замер: java MapGenerator [столбцов] [строк] [зерно] [повторов]
+    public static void main(String[] args) {
+        Locale.setDefault(Locale.ROOT);
+        int columns = args.length > 0 ? Integer.parseInt(args[0]) : MAX_TILES;
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : columns;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        int runs = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        TileMap first = generate(columns, rows, seed);
+        PerformanceStats stats = new PerformanceStats(runs);
+        boolean deterministic = true;
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            TileMap tileMap = generate(columns, rows, seed);
+            stats.record(System.nanoTime() - start);
+            deterministic &= sameLayout(first, tileMap);
+        }
+
+        int wallCount = 0;
+        for (int column = 0; column < columns; column++) {
+            for (int row = 0; row < rows; row++) {
+                wallCount += first.isWall(column, row) ? 1 : 0;
+            }
+        }
+        System.out.printf("%s, зерно %d, потоков %d%n", first, seed, ForkJoinPool.commonPool().getParallelism());
+        System.out.printf("Генерация: ср %.1f мс, p50 %.1f мс, макс %.1f мс за %d повторов%n",
+                stats.getAverageMillis(), stats.getPercentileMillis(0.5), stats.getPercentileMillis(1), runs);
+        System.out.printf("Стен %.1f%%, точек появления врагов %d, повтор %s%n",
+                wallCount * 100.0 / ((long) columns * rows), first.getEnemySpawnCount(),
+                deterministic ? "совпадает" : "РАСХОДИТСЯ");
+    }
+
+    public static TileMap generate(int columns, int rows, long seed) {
+        if (columns < MIN_COLUMNS || rows < MIN_ROWS || columns > MAX_TILES || rows > MAX_TILES) {
+            throw new IllegalArgumentException("Размер процедурной карты от " + MIN_COLUMNS + "×" + MIN_ROWS
+                    + " до " + MAX_TILES + "×" + MAX_TILES + ": " + columns + "×" + rows);
+        }
+        MapGenerator generator = new MapGenerator(columns, rows, seed);
+        ForkJoinPool.commonPool().invoke(generator.new ChunkTask(0, generator.chunksX * generator.chunksY));
+        return generator.finish();
+    }
+
+    private static boolean sameLayout(TileMap a, TileMap b) {
+        for (int column = 0; column < a.getColumns(); column++) {
+            for (int row = 0; row < a.getRows(); row++) {
+                if (a.isWall(column, row) != b.isWall(column, row)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int firstChunk;
+        private final int endChunk;
+
+        ChunkTask(int firstChunk, int endChunk) {
+            this.firstChunk = firstChunk;
+            this.endChunk = endChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (endChunk - firstChunk > CHUNKS_PER_TASK) {
+                int middle = (firstChunk + endChunk) >>> 1;
+                invokeAll(new ChunkTask(firstChunk, middle), new ChunkTask(middle, endChunk));
+                return;
+            }
+            for (int chunk = firstChunk; chunk < endChunk; chunk++) {
+                generateChunk(chunk % chunksX, chunk / chunksX);
+            }
+        }
+    }
+
+    // Куски делят карту поровну: остаток от деления на CHUNK_TILES расходится по кускам
+    private int chunkLeft(int chunkX) {
+        return chunkX * columns / chunksX;
+    }
+
+    private int chunkTop(int chunkY) {
+        return chunkY * rows / chunksY;
+    }
+
+    private void generateChunk(int chunkX, int chunkY) {
+        int chunk = chunkY * chunksX + chunkX;
+        SplittableRandom random = new SplittableRandom(seed + chunk * CHUNK_GAMMA);
+        int left = chunkLeft(chunkX);
+        int right = chunkLeft(chunkX + 1) - 1;
+        int top = chunkTop(chunkY);
+        int bottom = chunkTop(chunkY + 1) - 1;
+        fill(left, top, right, bottom, true);
+
+        // Комната не касается края куска: между комнатами соседей остаётся стена
+        int spaceWidth = right - left - 1;
+        int spaceHeight = bottom - top - 1;
+        int roomWidth = spaceWidth / 2 + random.nextInt(spaceWidth - spaceWidth / 2 + 1);
+        int roomHeight = spaceHeight / 2 + random.nextInt(spaceHeight - spaceHeight / 2 + 1);
+        int roomLeft = left + 1 + random.nextInt(spaceWidth - roomWidth + 1);
+        int roomTop = top + 1 + random.nextInt(spaceHeight - roomHeight + 1);
+        int roomRight = roomLeft + roomWidth - 1;
+        int roomBottom = roomTop + roomHeight - 1;
+        fill(roomLeft, roomTop, roomRight, roomBottom, false);
+
+        for (int x = roomLeft + 1; x < roomRight; x += COVER_STEP) {
+            for (int y = roomTop + 1; y < roomBottom; y += COVER_STEP) {
+                if (random.nextInt(100) < COVER_PERCENT) {
+                    walls[x * rows + y] = true;
+                }
+            }
+        }
+
+        int hubX = roomLeft + (roomWidth - CORRIDOR_WIDTH) / 2;
+        int hubY = roomTop + (roomHeight - CORRIDOR_WIDTH) / 2;
+        hubColumn[chunk] = hubX;
+        hubRow[chunk] = hubY;
+        fill(hubX, hubY, hubX + CORRIDOR_WIDTH - 1, hubY + CORRIDOR_WIDTH - 1, false);
+
+        // Двери на общей границе оба куска вычисляют одинаково, поэтому их коридоры сходятся
+        if (chunkX > 0) {
+            int doorY = doorPosition(chunk - 1, false, top, bottom);
+            carveHorizontal(left, hubX, doorY);
+            carveVertical(hubX, doorY, hubY);
+        }
+        if (chunkX < chunksX - 1) {
+            int doorY = doorPosition(chunk, false, top, bottom);
+            carveHorizontal(hubX, right, doorY);
+            carveVertical(hubX, doorY, hubY);
+        }
+        if (chunkY > 0) {
+            int doorX = doorPosition(chunk - chunksX, true, left, right);
+            carveVertical(doorX, top, hubY);
+            carveHorizontal(doorX, hubX, hubY);
+        }
+        if (chunkY < chunksY - 1) {
+            int doorX = doorPosition(chunk, true, left, right);
+            carveVertical(doorX, hubY, bottom);
+            carveHorizontal(doorX, hubX, hubY);
+        }
+    }
+
+    // Дверь на правой (below == false) или нижней границе куска chunk, в пределах [first + 1, last - 1]
+    private int doorPosition(int chunk, boolean below, int first, int last) {
+        long hash = mix(seed ^ DOOR_SALT ^ ((chunk * 2L + (below ? 1 : 0)) * CHUNK_GAMMA));
+        int span = last - first - CORRIDOR_WIDTH;
+        return first + 1 + (int) Math.floorMod(hash, (long) span);
+    }
+
+    // Финализатор SplitMix64
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    private void carveHorizontal(int fromX, int toX, int y) {
+        fill(Math.min(fromX, toX), y, Math.max(fromX, toX), y + CORRIDOR_WIDTH - 1, false);
+    }
+
+    private void carveVertical(int x, int fromY, int toY) {
+        fill(x, Math.min(fromY, toY), x + CORRIDOR_WIDTH - 1, Math.max(fromY, toY), false);
+    }
+
+    private void fill(int left, int top, int right, int bottom, boolean wall) {
+        for (int x = left; x <= right; x++) {
+            Arrays.fill(walls, x * rows + top, x * rows + bottom + 1, wall);
+        }
+    }
+
+    // Игрок — в куске у центра карты, враги — в остальных кусках в случайном по зерну порядке
+    private TileMap finish() {
+        int playerChunk = (chunksY / 2) * chunksX + chunksX / 2;
+        sealUnreachable(hubColumn[playerChunk], hubRow[playerChunk]);
+
+        int[] order = new int[chunksX * chunksY - 1];
+        for (int chunk = 0, i = 0; chunk < chunksX * chunksY; chunk++) {
+            if (chunk != playerChunk) {
+                order[i++] = chunk;
+            }
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        int[] enemySpawns = new int[order.length * 2];
+        for (int i = 0; i < order.length; i++) {
+            enemySpawns[i * 2] = hubColumn[order[i]];
+            enemySpawns[i * 2 + 1] = hubRow[order[i]];
+        }
+
+        GameModel.MapTheme theme = (mix(seed) & 1) == 0 ? GameModel.MapTheme.SUMMER : GameModel.MapTheme.DESERT;
+        return new TileMap("Случайная", theme, columns, rows, walls, hubColumn[playerChunk], hubRow[playerChunk],
+                enemySpawns, TileMap.PROCEDURAL, null);
+    }
+
+    // Проход связности: обход в ширину от игрока, недостижимые тайлы становятся стенами.
+    // По построению все куски связаны, проход — страховка от изменения раскладки
+    private void sealUnreachable(int startColumn, int startRow) {
+        boolean[] reached = new boolean[walls.length];
+        int[] queue = new int[walls.length];
+        int head = 0;
+        int tail = 0;
+        int start = startColumn * rows + startRow;
+        reached[start] = true;
+        queue[tail++] = start;
+        while (head < tail) {
+            int tile = queue[head++];
+            int row = tile % rows;
+            tail = visit(tile - rows, reached, queue, tail);
+            tail = visit(tile + rows, reached, queue, tail);
+            if (row > 0) {
+                tail = visit(tile - 1, reached, queue, tail);
+            }
+            if (row < rows - 1) {
+                tail = visit(tile + 1, reached, queue, tail);
+            }
+        }
+        for (int tile = 0; tile < walls.length; tile++) {
+            if (!reached[tile]) {
+                walls[tile] = true;
+            }
+        }
+    }
+
+    // Граница карты — стена, поэтому выход за столбцы проверять не нужно
+    private int visit(int tile, boolean[] reached, int[] queue, int tail) {
+        if (walls[tile] || reached[tile]) {
+            return tail;
+        }
+        reached[tile] = true;
+        queue[tail] = tile;
+        return tail + 1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,109 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Статичный слой карты (фон и стены) кэшируется кусками по CHUNK_TILES × CHUNK_TILES тайлов.
+// Рисуются и создаются только куски, попавшие в видимую область; давно не нужные
+// вытесняются по LRU, поэтому память не зависит от размера карты
+public class MapLayerCache {
+    private static final int CHUNK_TILES = 8;
+    private static final int CHUNK_SIZE = CHUNK_TILES * GameModel.TILE_SIZE;
+    private static final int MAX_CHUNKS = Integer.getInteger("tankwar.cache.chunks", 64);
+
+    private final Map<Long, BufferedImage> chunks = new LinkedHashMap<Long, BufferedImage>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+            return size() > MAX_CHUNKS;
+        }
+    };
+    private int cachedMapVersion = -1;
+    private GameModel.MapTheme cachedTheme;
+
+    // area — видимая часть мира в мировых координатах
+    public void draw(Graphics2D g2d, WorldSnapshot snapshot, Rectangle area) {
+        if (cachedMapVersion != snapshot.getMapVersion() || cachedTheme != snapshot.getTheme()) {
+            chunks.clear();
+            cachedMapVersion = snapshot.getMapVersion();
+            cachedTheme = snapshot.getTheme();
+        }
+
+        int firstChunkX = Math.max(area.x / CHUNK_SIZE, 0);
+        int lastChunkX = Math.min((area.x + area.width - 1) / CHUNK_SIZE, (snapshot.getWorldWidth() - 1) / CHUNK_SIZE);
+        int firstChunkY = Math.max(area.y / CHUNK_SIZE, 0);
+        int lastChunkY = Math.min((area.y + area.height - 1) / CHUNK_SIZE, (snapshot.getWorldHeight() - 1) / CHUNK_SIZE);
+
+        for (int chunkX = firstChunkX; chunkX <= lastChunkX; chunkX++) {
+            for (int chunkY = firstChunkY; chunkY <= lastChunkY; chunkY++) {
+                BufferedImage chunk = getChunk(g2d.getDeviceConfiguration(), snapshot, chunkX, chunkY);
+                g2d.drawImage(chunk, chunkX * CHUNK_SIZE, chunkY * CHUNK_SIZE, null);
+            }
+        }
+    }
+
+    public void invalidate() {
+        chunks.clear();
+    }
+
+    private BufferedImage getChunk(GraphicsConfiguration configuration, WorldSnapshot snapshot, int chunkX, int chunkY) {
+        long key = ((long) chunkX << 32) | chunkY;
+        BufferedImage chunk = chunks.get(key);
+        if (chunk == null) {
+            chunk = render(snapshot, configuration, chunkX, chunkY);
+            chunks.put(key, chunk);
+        }
+        return chunk;
+    }
+
+    private BufferedImage render(WorldSnapshot snapshot, GraphicsConfiguration configuration, int chunkX, int chunkY) {
+        BufferedImage layer = configuration != null
+                ? configuration.createCompatibleImage(CHUNK_SIZE, CHUNK_SIZE)
+                : new BufferedImage(CHUNK_SIZE, CHUNK_SIZE, BufferedImage.TYPE_INT_RGB);
+
+        Graphics2D g2d = layer.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.translate(-chunkX * CHUNK_SIZE, -chunkY * CHUNK_SIZE);
+        Color[] themeColors = getMapThemeColors(snapshot.getTheme());
+        g2d.setColor(themeColors[0]); // grass/desert color
+        g2d.fillRect(chunkX * CHUNK_SIZE, chunkY * CHUNK_SIZE, CHUNK_SIZE, CHUNK_SIZE);
+        drawObstacles(g2d, snapshot, themeColors[1], chunkX * CHUNK_TILES, chunkY * CHUNK_TILES);
+        g2d.dispose();
+        return layer;
+    }
+
+    private Color[] getMapThemeColors(GameModel.MapTheme theme) {
+        if (theme == GameModel.MapTheme.DESERT) {
+            return new Color[]{
+                    new Color(210, 180, 140),  // desert color
+                    new Color(139, 69, 19)     // wall color
+            };
+        } else {
+            return new Color[]{
+                    new Color(34, 139, 34),    // grass color
+                    new Color(105, 105, 105)   // wall color
+            };
+        }
+    }
+
+    // Контур стены заходит на пиксель в соседний тайл, поэтому захватываются и тайлы
+    // слева и сверху от куска; порядок обхода тот же, что у цельного слоя
+    private void drawObstacles(Graphics2D g2d, WorldSnapshot snapshot, Color wallColor, int firstColumn, int firstRow) {
+        int lastColumn = Math.min(firstColumn + CHUNK_TILES, snapshot.getMapColumns()) - 1;
+        int lastRow = Math.min(firstRow + CHUNK_TILES, snapshot.getMapRows()) - 1;
+        Rectangle wall = new Rectangle(0, 0, GameModel.TILE_SIZE, GameModel.TILE_SIZE);
+
+        g2d.setColor(wallColor);
+        for (int column = Math.max(firstColumn - 1, 0); column <= lastColumn; column++) {
+            for (int row = Math.max(firstRow - 1, 0); row <= lastRow; row++) {
+                if (!snapshot.isWallTile(column, row)) {
+                    continue;
+                }
+                wall.setLocation(column * GameModel.TILE_SIZE, row * GameModel.TILE_SIZE);
+                g2d.fill(wall);
+                g2d.setColor(wallColor.darker());
+                g2d.draw(wall);
+                g2d.setColor(wallColor);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,91 @@
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Каталог карт (-Dtankwar.maps, по умолчанию maps) и кэш разобранных карт.
+// Повторный старт на той же карте не читает файл заново; изменённый на диске файл
+// узнаётся по времени изменения и размеру. Давно не нужные карты вытесняются по LRU
+public class MapLibrary {
+    private static final int MAX_CACHED_MAPS = Integer.getInteger("tankwar.cache.maps", 8);
+
+    private final Path directory;
+    private final Map<Path, CachedMap> cache = new LinkedHashMap<Path, CachedMap>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, CachedMap> eldest) {
+            return size() > MAX_CACHED_MAPS;
+        }
+    };
+    private long hits;
+    private long misses;
+
+    public MapLibrary() {
+        this(Paths.get(System.getProperty("tankwar.maps", "maps")));
+    }
+
+    public MapLibrary(Path directory) {
+        this.directory = directory;
+    }
+
+    // Файлы карт каталога по имени; нет каталога — нет карт
+    public List<Path> listMapFiles() {
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + TileMapFile.EXTENSION)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Не удалось прочитать каталог карт " + directory + ": " + e.getMessage());
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    public synchronized TileMap load(Path file) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        long modified = attributes.lastModifiedTime().toMillis();
+        CachedMap cached = cache.get(key);
+        if (cached != null && cached.modified == modified && cached.size == attributes.size()) {
+            hits++;
+            return cached.tileMap;
+        }
+        misses++;
+        TileMap tileMap = TileMapFile.read(key);
+        cache.put(key, new CachedMap(tileMap, modified, attributes.size()));
+        return tileMap;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "карт в кэше: " + cache.size() + "/" + MAX_CACHED_MAPS + ", попаданий " + hits + ", чтений " + misses;
+    }
+
+    private static class CachedMap {
+        final TileMap tileMap;
+        final long modified;
+        final long size;
+
+        CachedMap(TileMap tileMap, long modified, long size) {
+            this.tileMap = tileMap;
+            this.modified = modified;
+            this.size = size;
+        }
+    }
+}
\ No newline at end of file
@@ -1,15 +1,23 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionListener;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 public class MenuView extends JPanel {
     private static final int DEFAULT_ENEMY_COUNT = 5;
     private static final int MIN_ENEMY_COUNT = 1;
     private static final int MAX_ENEMY_COUNT = 50;
+    private static final String[] BUILT_IN_MAPS = {"Лето (Трава)", "Пустыня (Песок)", "Случайная (Генератор)"};
 
     private JTextField enemyCountField;
     private JComboBox<String> mapChooser;
+    private JComboBox<String> mapSizeChooser;
+    private JCheckBox massiveBattleBox;
     private JButton startButton;
+    // Карты из файлов идут в списке после встроенных
+    private List<Path> mapFiles = new ArrayList<>();
 
     public MenuView(ActionListener controller) {
         setLayout(new GridBagLayout());
@@ -54,6 +62,8 @@ public class MenuView extends JPanel {
         addTitleToPanel(panel, constraints);
         addEnemyCountControls(panel, constraints);
         addMapSelectionControls(panel, constraints);
+        addMapSizeControls(panel, constraints);
+        addMassiveBattleControl(panel, constraints);
         addActionButtons(panel, constraints, controller);
 
         return panel;
@@ -132,13 +142,73 @@ public class MenuView extends JPanel {
     }
 
     private JComboBox<String> createMapSelectionComboBox() {
-        String[] mapOptions = {"Лето (Трава)", "Пустыня (Песок)"};
-        JComboBox<String> comboBox = new JComboBox<>(mapOptions);
+        JComboBox<String> comboBox = new JComboBox<>(BUILT_IN_MAPS);
         comboBox.setFont(new Font("Arial", Font.PLAIN, 24));
         comboBox.setBackground(new Color(200, 200, 200));
+        // Размер карты из файла задан в самом файле
+        comboBox.addActionListener(e -> mapSizeChooser.setEnabled(getSelectedMapFile() == null));
         return comboBox;
     }
 
+    // Обновляет список карт из файлов, по возможности сохраняя выбор
+    public void setMapFiles(List<Path> files) {
+        Path selectedFile = getSelectedMapFile();
+        int selectedIndex = mapChooser.getSelectedIndex();
+        mapFiles = new ArrayList<>(files);
+
+        mapChooser.removeAllItems();
+        for (String name : BUILT_IN_MAPS) {
+            mapChooser.addItem(name);
+        }
+        for (Path file : mapFiles) {
+            String name = file.getFileName().toString();
+            mapChooser.addItem(name.substring(0, name.length() - TileMapFile.EXTENSION.length()));
+        }
+
+        if (selectedFile != null && mapFiles.contains(selectedFile)) {
+            mapChooser.setSelectedIndex(BUILT_IN_MAPS.length + mapFiles.indexOf(selectedFile));
+        } else if (selectedIndex >= 0 && selectedIndex < BUILT_IN_MAPS.length) {
+            mapChooser.setSelectedIndex(selectedIndex);
+        }
+    }
+
+    private void addMapSizeControls(JPanel panel, GridBagConstraints constraints) {
+        JLabel sizeLabel = createStyledLabel("Размер карты:");
+        constraints.gridx = 0;
+        constraints.gridy = 3;
+        panel.add(sizeLabel, constraints);
+
+        mapSizeChooser = createMapSizeComboBox();
+        constraints.gridx = 1;
+        panel.add(mapSizeChooser, constraints);
+    }
+
+    private JComboBox<String> createMapSizeComboBox() {
+        String[] sizeOptions = {"Экран", "Большая (" + GameModel.LARGE_MAP_TILES + "×" + GameModel.LARGE_MAP_TILES + ")",
+                "Огромная (" + GameModel.HUGE_MAP_TILES + "×" + GameModel.HUGE_MAP_TILES + ")"};
+        JComboBox<String> comboBox = new JComboBox<>(sizeOptions);
+        comboBox.setFont(new Font("Arial", Font.PLAIN, 24));
+        comboBox.setBackground(new Color(200, 200, 200));
+        return comboBox;
+    }
+
+    private void addMassiveBattleControl(JPanel panel, GridBagConstraints constraints) {
+        massiveBattleBox = createMassiveBattleBox();
+        constraints.gridx = 0;
+        constraints.gridy = 4;
+        constraints.gridwidth = 2;
+        panel.add(massiveBattleBox, constraints);
+    }
+
+    private JCheckBox createMassiveBattleBox() {
+        JCheckBox checkBox = new JCheckBox("Массовое сражение (до " + GameModel.MAX_BATTLE_ENEMY_COUNT + " врагов)");
+        checkBox.setFont(new Font("Arial", Font.BOLD, 20));
+        checkBox.setForeground(Color.LIGHT_GRAY);
+        checkBox.setOpaque(false);
+        checkBox.setFocusPainted(false);
+        return checkBox;
+    }
+
     private void addActionButtons(JPanel panel, GridBagConstraints constraints, ActionListener controller) {
         addStartButton(panel, constraints, controller);
         addExitButton(panel, constraints, controller);
@@ -147,7 +217,7 @@ public class MenuView extends JPanel {
     private void addStartButton(JPanel panel, GridBagConstraints constraints, ActionListener controller) {
         startButton = createStartButton(controller);
         constraints.gridx = 0;
-        constraints.gridy = 3;
+        constraints.gridy = 5;
         constraints.gridwidth = 2;
         constraints.fill = GridBagConstraints.HORIZONTAL;
         panel.add(startButton, constraints);
@@ -166,7 +236,7 @@ public class MenuView extends JPanel {
 
     private void addExitButton(JPanel panel, GridBagConstraints constraints, ActionListener controller) {
         JButton exitButton = createExitButton(controller);
-        constraints.gridy = 4;
+        constraints.gridy = 6;
         constraints.fill = GridBagConstraints.NONE;
         constraints.gridwidth = 2;
         constraints.anchor = GridBagConstraints.CENTER;
@@ -192,14 +262,43 @@ public class MenuView extends JPanel {
 
     public int getEnemyCount() {
         try {
-            int count = Integer.parseInt(enemyCountField.getText());
-            return Math.max(MIN_ENEMY_COUNT, Math.min(count, MAX_ENEMY_COUNT));
+            int count = Integer.parseInt(enemyCountField.getText().trim());
+            int maxCount = isMassiveBattle() ? GameModel.MAX_BATTLE_ENEMY_COUNT : MAX_ENEMY_COUNT;
+            return Math.max(MIN_ENEMY_COUNT, Math.min(count, maxCount));
         } catch (NumberFormatException e) {
             return DEFAULT_ENEMY_COUNT;
         }
     }
 
+    public boolean isMassiveBattle() {
+        return massiveBattleBox.isSelected();
+    }
+
+    public int getMapColumns() {
+        return getSquareMapTiles(GameModel.SCREEN_MAP_COLUMNS);
+    }
+
+    public int getMapRows() {
+        return getSquareMapTiles(GameModel.SCREEN_MAP_ROWS);
+    }
+
+    // Большая и огромная карты квадратные, экранная — по размеру окна
+    private int getSquareMapTiles(int screenTiles) {
+        switch (mapSizeChooser.getSelectedIndex()) {
+            case 1: return GameModel.LARGE_MAP_TILES;
+            case 2: return GameModel.HUGE_MAP_TILES;
+            default: return screenTiles;
+        }
+    }
+
+    // Номер встроенной карты или TileMap.FROM_FILE, если выбран файл
     public int getSelectedMapId() {
-        return mapChooser.getSelectedIndex() + 1;
+        int index = mapChooser.getSelectedIndex();
+        return index < BUILT_IN_MAPS.length ? index + 1 : TileMap.FROM_FILE;
+    }
+
+    public Path getSelectedMapFile() {
+        int index = mapChooser.getSelectedIndex() - BUILT_IN_MAPS.length;
+        return index >= 0 && index < mapFiles.size() ? mapFiles.get(index) : null;
     }
 }
\ No newline at end of file
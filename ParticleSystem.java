@@ -0,0 +1,181 @@
+import java.util.SplittableRandom;
+
+// Частицы эффектов (вспышки, обломки, дым, дульное пламя) в кольцевом буфере примитивных массивов:
+// ни одного объекта на частицу. Новые пишутся в голову, при переполнении затирается самая старая.
+// Частицы чисто декоративные и берут случайные числа из своего генератора, не трогая игровой
+public class ParticleSystem {
+    // Номер типа задаёт и порядок отрисовки: дым снизу, искры поверх
+    public static final int TYPE_SMOKE = 0;
+    public static final int TYPE_FLASH = 1;
+    public static final int TYPE_DEBRIS = 2;
+    public static final int TYPE_SPARK = 3;
+    public static final int TYPE_COUNT = 4;
+    // Затухание квантуется на FADE_LEVELS ступеней: частицы одного стиля рисуются одним цветом
+    public static final int FADE_LEVELS = 4;
+    public static final int STYLE_COUNT = TYPE_COUNT * FADE_LEVELS;
+
+    private static final float DEBRIS_DRAG = 0.9f;
+    private static final float SMOKE_DRAG = 0.96f;
+    private static final float SMOKE_GROWTH = 0.6f;
+    private static final float FLASH_GROWTH = 3f;
+    private static final long RANDOM_SALT = 0x9E3779B97F4A7C15L;
+
+    private final int capacity;
+    private final float[] x;
+    private final float[] y;
+    private final float[] velocityX;
+    private final float[] velocityY;
+    private final float[] size;
+    private final int[] age;
+    private final int[] lifetime;
+    private final byte[] type;
+    private SplittableRandom random;
+    private int tail;
+    private int count;
+    private long overwritten;
+
+    public ParticleSystem(int capacity, long seed) {
+        this.capacity = capacity;
+        x = new float[capacity];
+        y = new float[capacity];
+        velocityX = new float[capacity];
+        velocityY = new float[capacity];
+        size = new float[capacity];
+        age = new int[capacity];
+        lifetime = new int[capacity];
+        type = new byte[capacity];
+        random = new SplittableRandom(seed ^ RANDOM_SALT);
+    }
+
+    // Взрыв танка или попадание в стену: огненный шар, разлёт обломков и медленный дым
+    public void emitExplosion(int centerX, int centerY, int radius) {
+        emit(TYPE_FLASH, centerX, centerY, 0, 0, radius, 8);
+        int debris = 10 + random.nextInt(6);
+        for (int i = 0; i < debris; i++) {
+            double angle = random.nextDouble() * Math.PI * 2;
+            double speed = 2 + random.nextDouble() * 5;
+            emit(TYPE_DEBRIS, centerX, centerY, (float) (Math.cos(angle) * speed), (float) (Math.sin(angle) * speed),
+                    2 + random.nextInt(3), 18 + random.nextInt(12));
+        }
+        int smoke = 4 + random.nextInt(3);
+        for (int i = 0; i < smoke; i++) {
+            emit(TYPE_SMOKE, centerX + random.nextInt(radius) - radius / 2, centerY + random.nextInt(radius) - radius / 2,
+                    (float) (random.nextDouble() - 0.5), (float) (random.nextDouble() - 0.5),
+                    radius / 2f, 30 + random.nextInt(20));
+        }
+    }
+
+    // Дульное пламя: несколько искр, летящих по направлению выстрела
+    public void emitMuzzleFlash(int muzzleX, int muzzleY, int direction) {
+        float directionX = direction == 1 ? 1 : direction == 3 ? -1 : 0;
+        float directionY = direction == 2 ? 1 : direction == 0 ? -1 : 0;
+        emit(TYPE_FLASH, muzzleX, muzzleY, 0, 0, 8, 3);
+        for (int i = 0; i < 4; i++) {
+            float speed = 3 + (float) random.nextDouble() * 4;
+            float spread = (float) (random.nextDouble() - 0.5) * 2;
+            emit(TYPE_SPARK, muzzleX, muzzleY, directionX * speed + directionY * spread,
+                    directionY * speed + directionX * spread, 2, 3 + random.nextInt(3));
+        }
+    }
+
+    private void emit(int particleType, float startX, float startY, float speedX, float speedY,
+                      float startSize, int ticks) {
+        if (count == capacity) {
+            tail = (tail + 1) % capacity;
+            count--;
+            overwritten++;
+        }
+        int index = (tail + count) % capacity;
+        x[index] = startX;
+        y[index] = startY;
+        velocityX[index] = speedX;
+        velocityY[index] = speedY;
+        size[index] = startSize;
+        age[index] = 0;
+        lifetime[index] = ticks;
+        type[index] = (byte) particleType;
+        count++;
+    }
+
+    // Один проход по живым частицам; отыгравшие в хвосте буфера сразу освобождают место
+    public void update() {
+        for (int i = 0, index = tail; i < count; i++, index = (index + 1) % capacity) {
+            if (age[index] >= lifetime[index]) {
+                continue;
+            }
+            age[index]++;
+            x[index] += velocityX[index];
+            y[index] += velocityY[index];
+            switch (type[index]) {
+                case TYPE_DEBRIS:
+                    velocityX[index] *= DEBRIS_DRAG;
+                    velocityY[index] *= DEBRIS_DRAG;
+                    break;
+                case TYPE_SMOKE:
+                    velocityX[index] *= SMOKE_DRAG;
+                    velocityY[index] *= SMOKE_DRAG;
+                    size[index] += SMOKE_GROWTH;
+                    break;
+                case TYPE_FLASH:
+                    size[index] += FLASH_GROWTH;
+                    break;
+                default:
+                    break;
+            }
+        }
+        while (count > 0 && age[tail] >= lifetime[tail]) {
+            tail = (tail + 1) % capacity;
+            count--;
+        }
+    }
+
+    // Новый матч: частицы и их генератор начинаются заново, поэтому повтор матча по записи
+    // выглядит так же, как оригинал
+    public void reset(long seed) {
+        tail = 0;
+        count = 0;
+        random = new SplittableRandom(seed ^ RANDOM_SALT);
+    }
+
+    // Обход для копирования: позиция i считается от самой старой частицы
+    public int size() {
+        return count;
+    }
+
+    public boolean isAlive(int i) {
+        int index = (tail + i) % capacity;
+        return age[index] < lifetime[index];
+    }
+
+    public int getX(int i) {
+        return (int) x[(tail + i) % capacity];
+    }
+
+    public int getY(int i) {
+        return (int) y[(tail + i) % capacity];
+    }
+
+    public int getSize(int i) {
+        return Math.max(1, (int) size[(tail + i) % capacity]);
+    }
+
+    // Стиль — тип частицы и ступень затухания по доле прожитого времени
+    public int getStyle(int i) {
+        int index = (tail + i) % capacity;
+        int fade = Math.min(age[index] * FADE_LEVELS / lifetime[index], FADE_LEVELS - 1);
+        return type[index] * FADE_LEVELS + fade;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getOverwrittenCount() {
+        return overwritten;
+    }
+
+    @Override
+    public String toString() {
+        return "частиц: " + count + "/" + capacity + ", вытеснено " + overwritten;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+import java.awt.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+// Отладочный оверлей (F3): время тика и кадра, число объектов и паузы сборщика мусора.
+// Текст пересобирается не чаще REFRESH_NANOS, между обновлениями рисуются готовые строки
+public class PerformanceOverlay {
+    private static final long REFRESH_NANOS = 500_000_000L;
+    private static final double P99 = 0.99;
+    private static final int X = 10;
+    private static final int Y = 10;
+    private static final int WIDTH = 420;
+    private static final int LINE_HEIGHT = 18;
+    private static final int PADDING = 8;
+    private static final int LINE_COUNT = 5;
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 14);
+    private static final Color BACKGROUND = new Color(0, 0, 0, 170);
+
+    private final PerformanceStats tickStats;
+    private final PerformanceStats renderStats;
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final String[] lines = new String[LINE_COUNT];
+    private final Rectangle bounds = new Rectangle(X, Y, WIDTH, LINE_COUNT * LINE_HEIGHT + 2 * PADDING);
+    private volatile boolean visible;
+    private long lastRefreshTime;
+    private long lastGcCount = -1;
+    private long lastGcMillis;
+
+    public PerformanceOverlay(PerformanceStats tickStats, PerformanceStats renderStats) {
+        this.tickStats = tickStats;
+        this.renderStats = renderStats;
+    }
+
+    public void toggle() {
+        visible = !visible;
+        lastRefreshTime = 0;
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    // Область оверлея в координатах игрового мира на экране
+    public Rectangle getBounds() {
+        return bounds;
+    }
+
+    // true, если текст изменился и область оверлея нужно перерисовать
+    public boolean refresh(WorldSnapshot snapshot, long now) {
+        if (!visible || (lastRefreshTime != 0 && now - lastRefreshTime < REFRESH_NANOS)) {
+            return false;
+        }
+        long intervalMillis = lastRefreshTime == 0 ? 0 : (now - lastRefreshTime) / 1_000_000L;
+        lastRefreshTime = now;
+
+        lines[0] = String.format("Тик:   ср %.2f мс, p99 %.2f мс", tickStats.getAverageMillis(),
+                tickStats.getPercentileMillis(P99));
+        lines[1] = String.format("Кадр:  ср %.2f мс, p99 %.2f мс", renderStats.getAverageMillis(),
+                renderStats.getPercentileMillis(P99));
+        lines[2] = String.format("Враги: %d, пули: %d, частицы: %d", snapshot.getEnemyCount(),
+                snapshot.getBulletCount(), snapshot.getParticleCount());
+        lines[3] = formatGcLine(intervalMillis);
+        lines[4] = "Тик №" + snapshot.getTick();
+        return true;
+    }
+
+    private String formatGcLine(long intervalMillis) {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            count += Math.max(collector.getCollectionCount(), 0);
+            millis += Math.max(collector.getCollectionTime(), 0);
+        }
+        long newCount = lastGcCount < 0 ? 0 : count - lastGcCount;
+        long newMillis = lastGcCount < 0 ? 0 : millis - lastGcMillis;
+        lastGcCount = count;
+        lastGcMillis = millis;
+        return String.format("GC:    %d сборок, %d мс за %d мс (всего %d / %d мс)",
+                newCount, newMillis, intervalMillis, count, millis);
+    }
+
+    public void draw(Graphics2D g2d) {
+        if (!visible || lines[0] == null) {
+            return;
+        }
+        g2d.setColor(BACKGROUND);
+        g2d.fill(bounds);
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(FONT);
+        for (int i = 0; i < lines.length; i++) {
+            g2d.drawString(lines[i], X + PADDING, Y + PADDING + (i + 1) * LINE_HEIGHT - 4);
+        }
+    }
+}
\ No newline at end of file
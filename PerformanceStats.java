@@ -0,0 +1,56 @@
+import java.util.Arrays;
+
+// Кольцевой буфер последних замеров длительности (в наносекундах): среднее и перцентиль по окну.
+// Не потокобезопасен — пишется и читается в потоке, который ведёт симуляцию и отрисовку
+public class PerformanceStats {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final long[] samples;
+    private final long[] sortedSamples;
+    private int count;
+    private int next;
+
+    public PerformanceStats(int capacity) {
+        samples = new long[capacity];
+        sortedSamples = new long[capacity];
+    }
+
+    public void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getAverageMillis() {
+        if (count == 0) {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += samples[i];
+        }
+        return total / NANOS_PER_MILLI / count;
+    }
+
+    // percentile в диапазоне (0, 1], например 0.99
+    public double getPercentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        System.arraycopy(samples, 0, sortedSamples, 0, count);
+        Arrays.sort(sortedSamples, 0, count);
+        int index = Math.min((int) Math.ceil(percentile * count) - 1, count - 1);
+        return sortedSamples[Math.max(index, 0)] / NANOS_PER_MILLI;
+    }
+
+    public void clear() {
+        count = 0;
+        next = 0;
+    }
+}
\ No newline at end of file
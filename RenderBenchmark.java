@@ -0,0 +1,113 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Locale;
+import javax.imageio.ImageIO;
+
+// Замер отрисовки без окна: мир рисуется WorldRenderer'ом в BufferedImage, сцена — матч
+// с фиксированным зерном, который продвигается на тик перед каждым кадром (тик в замер не входит).
+// Запуск: java -Djava.awt.headless=true RenderBenchmark [враги] [карта] [тайлы] [кадры] [png];
+// -Dtankwar.scene=файл начинает с сохранённого матча (см. SaveGame) вместо нового
+// Карта размером [тайлы]×[тайлы]; без этого аргумента — размером с экран
+public class RenderBenchmark {
+    private static final long SEED = 20_240_501L;
+    private static final int WARMUP_FRAMES = 300;
+    // Перцентили считаются по последним MAX_MEASURED_FRAMES кадрам
+    private static final int MAX_MEASURED_FRAMES = 16_384;
+    private static final int MAX_REGULAR_ENEMY_COUNT = 50;
+    private static final double INTERPOLATION = 0.5;
+
+    private final GameModel model;
+    private final int enemyCount;
+    private final int mapId;
+    private final int columns;
+    private final int rows;
+    private final WorldRenderer renderer = new WorldRenderer();
+    private final Camera camera = new Camera(GameModel.VIEWPORT_WIDTH, GameModel.VIEWPORT_HEIGHT);
+    private final BufferedImage image =
+            new BufferedImage(GameModel.VIEWPORT_WIDTH, GameModel.VIEWPORT_HEIGHT, BufferedImage.TYPE_INT_RGB);
+    private final PerformanceStats stats = new PerformanceStats(MAX_MEASURED_FRAMES);
+    private long renderNanos;
+    private int simplifiedFrames;
+
+    public static void main(String[] args) throws IOException {
+        Locale.setDefault(Locale.ROOT);
+        int enemyCount = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int mapId = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int columns = args.length > 2 ? Integer.parseInt(args[2]) : GameModel.SCREEN_MAP_COLUMNS;
+        int rows = args.length > 2 ? columns : GameModel.SCREEN_MAP_ROWS;
+        int frames = args.length > 3 ? Integer.parseInt(args[3]) : 2_000;
+        File output = args.length > 4 ? new File(args[4]) : null;
+
+        GameModel model = new GameModel(SEED);
+        model.initGame(enemyCount, mapId, enemyCount > MAX_REGULAR_ENEMY_COUNT, columns, rows);
+        String scene = System.getProperty("tankwar.scene");
+        if (scene != null) {
+            SaveGame.load(model, Paths.get(scene));
+        }
+        RenderBenchmark benchmark = new RenderBenchmark(model, enemyCount, mapId, columns, rows);
+
+        benchmark.run(WARMUP_FRAMES);
+        benchmark.stats.clear();
+        long elapsed = benchmark.run(frames);
+
+        System.out.printf("Сцена: %d врагов, карта %d, %d×%d тайлов, кадр %d×%d%n", enemyCount, mapId,
+                columns, rows, GameModel.VIEWPORT_WIDTH, GameModel.VIEWPORT_HEIGHT);
+        System.out.printf("Кадров: %d за %.1f мс — %.1f кадров/с%n", frames, benchmark.renderNanos / 1e6,
+                frames * 1e9 / benchmark.renderNanos);
+        System.out.printf("Кадр: ср %.3f мс, p50 %.3f мс, p99 %.3f мс, макс %.3f мс%n",
+                benchmark.stats.getAverageMillis(), benchmark.stats.getPercentileMillis(0.5),
+                benchmark.stats.getPercentileMillis(0.99), benchmark.stats.getPercentileMillis(1));
+        System.out.printf("Упрощённая детализация: %d кадров из %d%n", benchmark.simplifiedFrames, frames);
+        System.out.printf("Всего с симуляцией: %.1f мс%n", elapsed / 1e6);
+        if (output != null) {
+            ImageIO.write(benchmark.image, "png", output);
+            System.out.println("Последний кадр: " + output.getAbsolutePath());
+        }
+    }
+
+    private RenderBenchmark(GameModel model, int enemyCount, int mapId, int columns, int rows) {
+        this.model = model;
+        this.enemyCount = enemyCount;
+        this.mapId = mapId;
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    private long run(int frames) {
+        renderNanos = 0;
+        simplifiedFrames = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < frames; i++) {
+            if (model.getCurrentState() != GameModel.GameState.RUNNING) {
+                model.initGame(enemyCount, mapId, enemyCount > MAX_REGULAR_ENEMY_COUNT, columns, rows);
+            }
+            model.playerShoot();
+            model.updateGame();
+
+            long frameStart = System.nanoTime();
+            renderFrame(model.getSnapshots().acquireLatest());
+            long frameNanos = System.nanoTime() - frameStart;
+            stats.record(frameNanos);
+            renderNanos += frameNanos;
+            if (renderer.isSimplified()) {
+                simplifiedFrames++;
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    // Тот же кадр, что у активного режима GameView, только в изображение
+    private void renderFrame(WorldSnapshot snapshot) {
+        if (snapshot.hasPlayer()) {
+            camera.follow(snapshot.getPlayerX(INTERPOLATION) + Tank.SIZE / 2,
+                    snapshot.getPlayerY(INTERPOLATION) + Tank.SIZE / 2,
+                    snapshot.getWorldWidth(), snapshot.getWorldHeight());
+        }
+        Graphics2D g2d = image.createGraphics();
+        renderer.renderFrame(g2d, snapshot, INTERPOLATION, camera);
+        g2d.dispose();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+// Файл сохранения матча: заголовок (сигнатура, версия), затем состояние модели в том порядке,
+// в каком его пишет GameModel.encodeState и читает GameModel.decodeState. Файл пишется во временный
+// рядом и затем переименовывается, поэтому прерванное сохранение не портит прежнее.
+// Чтение — через отображение файла в память.
+// Подготовка сцены для бенчмарков и замер: java SaveGame файл [враги] [карта] [тайлов] [тики]
+public final class SaveGame {
+    static final int MAGIC = 0x54575356; // "TWSV"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = Integer.BYTES + Short.BYTES;
+
+    private static final long SEED = 20_240_501L;
+    private static final int MAX_REGULAR_ENEMY_COUNT = 50;
+    private static final int MEASURED_LOADS = 20;
+
+    private SaveGame() {
+    }
+
+    // Прогоняет матч заданное число тиков, сохраняет его и замеряет сохранение и загрузку
+    public static void main(String[] args) throws IOException {
+        Locale.setDefault(Locale.ROOT);
+        if (args.length < 1) {
+            System.err.println("Использование: java SaveGame файл [враги] [карта] [тайлов] [тики]");
+            System.exit(2);
+        }
+        Path path = Paths.get(args[0]);
+        int enemyCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int mapId = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        int tiles = args.length > 3 ? Integer.parseInt(args[3]) : GameModel.LARGE_MAP_TILES;
+        int ticks = args.length > 4 ? Integer.parseInt(args[4]) : 100;
+
+        GameModel model = new GameModel(SEED);
+        model.initGame(enemyCount, mapId, enemyCount > MAX_REGULAR_ENEMY_COUNT, tiles, tiles);
+        for (int i = 0; i < ticks && model.getCurrentState() == GameModel.GameState.RUNNING; i++) {
+            model.updateGame();
+        }
+
+        long start = System.nanoTime();
+        save(model, path);
+        long saveNanos = System.nanoTime() - start;
+
+        GameModel restored = new GameModel(SEED);
+        long bestLoadNanos = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_LOADS; i++) {
+            start = System.nanoTime();
+            load(restored, path);
+            bestLoadNanos = Math.min(bestLoadNanos, System.nanoTime() - start);
+        }
+
+        System.out.printf("Сохранено: тик %d, врагов %d, пуль %d, %d байт%n", restored.getCurrentTick(),
+                restored.getEnemies().size(), restored.getBulletStore().size(), Files.size(path));
+        System.out.printf("Сохранение: %.2f мс, загрузка: %.2f мс (лучшая из %d)%n",
+                saveNanos / 1e6, bestLoadNanos / 1e6, MEASURED_LOADS);
+    }
+
+    public static void save(GameModel model, Path path) throws IOException {
+        ByteBuffer buffer = model.encodeState();
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static void load(GameModel model, Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Сохранение больше 2 ГБ не поддерживается: " + path);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("Файл не является сохранением игры: " + path);
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Версия сохранения " + version + " не поддерживается (ожидается " + VERSION + "): " + path);
+        }
+        try {
+            model.decodeState(buffer);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Повреждённое сохранение: " + path, e);
+        }
+    }
+
+    static ByteBuffer allocate(int stateBytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HEADER_BYTES + stateBytes);
+        buffer.putInt(MAGIC).putShort(VERSION);
+        return buffer;
+    }
+}
\ No newline at end of file
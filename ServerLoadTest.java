@@ -0,0 +1,237 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+// Нагрузочный тест сервера в одной JVM: GameServer на свободном порту loopback и имитированные клиенты
+// в одном потоке со своим Selector. Каждый клиент шлёт ввод раз в тик и разбирает все сообщения сервера.
+// После разгона замеряются время тика сервера и трафик на клиента.
+// Запуск: java -Djava.awt.headless=true ServerLoadTest [клиентов] [секунд] [враги] [карта] [тайлов]
+public class ServerLoadTest {
+    private static final int WARMUP_SECONDS = 2;
+    private static final int TURN_PERCENT = 5;
+    private static final int SHOOT_PERCENT = 10;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final Selector selector;
+    private final List<SimulatedClient> clients = new ArrayList<>();
+
+    private ServerLoadTest(int clientCount, InetSocketAddress address) throws IOException {
+        selector = Selector.open();
+        for (int i = 0; i < clientCount; i++) {
+            SocketChannel channel = SocketChannel.open(address);
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            SimulatedClient client = new SimulatedClient(channel, new SplittableRandom(i));
+            channel.register(selector, SelectionKey.OP_READ, client);
+            clients.add(client);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Locale.setDefault(Locale.ROOT);
+        int clientCount = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int enemyCount = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int mapId = args.length > 3 ? Integer.parseInt(args[3]) : TileMap.PROCEDURAL;
+        int tiles = args.length > 4 ? Integer.parseInt(args[4]) : 100;
+
+        GameServer server = new GameServer(new GameModel(1), new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                enemyCount, mapId, enemyCount > 50, tiles, tiles);
+        server.start();
+        ServerLoadTest test = new ServerLoadTest(clientCount, new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                server.getPort()));
+
+        test.run(WARMUP_SECONDS * NANOS_PER_SECOND);
+        test.resetCounters();
+        server.requestStatsReset();
+        long start = System.nanoTime();
+        test.run(seconds * NANOS_PER_SECOND);
+        double elapsed = (System.nanoTime() - start) / (double) NANOS_PER_SECOND;
+        server.stop();
+        test.close();
+
+        test.printReport(server, elapsed, enemyCount, tiles);
+    }
+
+    // Шлёт ввод раз в тик и читает всё, что приходит, пока не истечёт duration
+    private void run(long duration) throws IOException {
+        long end = System.nanoTime() + duration;
+        long nextInput = System.nanoTime();
+        while (System.nanoTime() < end) {
+            long wait = Math.max(1, (nextInput - System.nanoTime()) / NANOS_PER_MILLI);
+            selector.select(wait);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (key.isValid() && key.isReadable()) {
+                    ((SimulatedClient) key.attachment()).read();
+                }
+            }
+            if (System.nanoTime() - nextInput >= 0) {
+                for (SimulatedClient client : clients) {
+                    client.sendInput();
+                }
+                nextInput += GameLoop.TICK_NANOS;
+            }
+        }
+    }
+
+    private void resetCounters() {
+        for (SimulatedClient client : clients) {
+            client.bytesReceived = 0;
+            client.bytesSent = 0;
+            client.states = 0;
+        }
+    }
+
+    private void close() throws IOException {
+        for (SimulatedClient client : clients) {
+            client.channel.close();
+        }
+        selector.close();
+    }
+
+    private void printReport(GameServer server, double elapsed, int enemyCount, int tiles) {
+        long totalReceived = 0;
+        long minReceived = Long.MAX_VALUE;
+        long maxReceived = 0;
+        long totalSent = 0;
+        long totalStates = 0;
+        long matches = 0;
+        long protocolErrors = 0;
+        for (SimulatedClient client : clients) {
+            totalReceived += client.bytesReceived;
+            minReceived = Math.min(minReceived, client.bytesReceived);
+            maxReceived = Math.max(maxReceived, client.bytesReceived);
+            totalSent += client.bytesSent;
+            totalStates += client.states;
+            matches += client.matches;
+            protocolErrors += client.protocolErrors;
+        }
+        int count = clients.size();
+
+        System.out.printf("Клиентов %d, врагов %d, карта %d×%d, замер %.1f с после разгона %d с%n",
+                count, enemyCount, tiles, tiles, elapsed, WARMUP_SECONDS);
+        System.out.printf("Тиков сервера: %d (%.1f/с), пропущено %d%n", server.getTicks(), server.getTicks() / elapsed,
+                server.getSkippedTicks());
+        printStats("Тик сервера (ввод, симуляция, рассылка)", server.getTickStats());
+        printStats("  из них рассылка", server.getBroadcastStats());
+        printStats("Опоздание начала тика", server.getLateness());
+        System.out.printf("К клиенту: ср %.1f КБ/с (мин %.1f, макс %.1f), состояний %.1f/с, пропущено сервером %d%n",
+                totalReceived / elapsed / count / 1024, minReceived / elapsed / 1024, maxReceived / elapsed / 1024,
+                totalStates / elapsed / count, server.getDroppedStates());
+        System.out.printf("От клиента: ср %.1f Б/с; сервер принял %.1f Б/с на клиента%n",
+                totalSent / elapsed / count, server.getBytesReceived() / elapsed / count);
+        System.out.printf("Сервер отправил %.1f КБ/с на клиента; сообщений о матче %d, ошибок разбора %d%n",
+                server.getBytesSent() / elapsed / count / 1024, matches, protocolErrors);
+    }
+
+    private static void printStats(String name, PerformanceStats stats) {
+        System.out.printf("%s: ср %.3f мс, p50 %.3f мс, p99 %.3f мс, макс %.3f мс%n", name,
+                stats.getAverageMillis(), stats.getPercentileMillis(0.5), stats.getPercentileMillis(0.99),
+                stats.getPercentileMillis(1));
+    }
+
+    // Клиент не рисует, но разбирает каждое сообщение так же, как это делал бы настоящий
+    private static class SimulatedClient {
+        final SocketChannel channel;
+        final SplittableRandom random;
+        ByteBuffer input = ByteBuffer.allocate(64 * 1024);
+        final ByteBuffer output = ByteBuffer.allocate(1);
+        int direction;
+        long lastTick = -1;
+        long bytesReceived;
+        long bytesSent;
+        long states;
+        long matches;
+        long protocolErrors;
+
+        SimulatedClient(SocketChannel channel, SplittableRandom random) {
+            this.channel = channel;
+            this.random = random;
+            direction = random.nextInt(4);
+        }
+
+        void sendInput() throws IOException {
+            if (random.nextInt(100) < TURN_PERCENT) {
+                direction = random.nextInt(4);
+            }
+            output.clear();
+            output.put(InputRecorder.encode(direction, true, random.nextInt(100) < SHOOT_PERCENT));
+            output.flip();
+            bytesSent += channel.write(output);
+        }
+
+        void read() throws IOException {
+            int read = channel.read(input);
+            if (read < 0) {
+                channel.close();
+                return;
+            }
+            bytesReceived += read;
+            input.flip();
+            while (input.remaining() >= GameServer.HEADER_BYTES) {
+                int length = input.getInt(input.position() + 1);
+                if (input.remaining() < GameServer.HEADER_BYTES + length) {
+                    growInput(GameServer.HEADER_BYTES + length);
+                    break;
+                }
+                byte type = input.get();
+                input.getInt();
+                int end = input.position() + length;
+                if (type == GameServer.MESSAGE_STATE) {
+                    readState();
+                } else if (type == GameServer.MESSAGE_MATCH) {
+                    matches++;
+                    lastTick = -1;
+                }
+                input.position(end);
+            }
+            input.compact();
+        }
+
+        // Сообщение о большой карте может не поместиться в буфер целиком
+        private void growInput(int messageBytes) {
+            if (messageBytes <= input.capacity()) {
+                return;
+            }
+            ByteBuffer grown = ByteBuffer.allocate(messageBytes);
+            grown.put(input);
+            grown.flip();
+            input = grown;
+        }
+
+        private void readState() {
+            long tick = input.getLong();
+            input.position(input.position() + 1 + 2 * Integer.BYTES + 1 + 2 * Integer.BYTES);
+            int tankCount = input.getInt();
+            for (int i = 0; i < tankCount; i++) {
+                input.getShort();
+                input.getShort();
+                int flags = input.get();
+                if ((flags >> 2) > GameServer.KIND_ENEMY) {
+                    protocolErrors++;
+                }
+            }
+            int bulletCount = input.getInt();
+            input.position(input.position() + bulletCount * 2 * Short.BYTES);
+            if (tick <= lastTick && lastTick >= 0) {
+                protocolErrors++;
+            }
+            lastTick = tick;
+            states++;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+import java.util.concurrent.atomic.AtomicReference;
+
+// Тройная буферизация снимков мира без блокировок. Три снимка: в один пишет симуляция,
+// второй лежит в published, третий держит отрисовка. Владельцы меняются только через getAndSet,
+// поэтому снимок, который читает отрисовка, никогда не перезаписывается. По номеру публикации
+// отрисовка понимает, есть ли что-то новее её снимка, а симуляция никогда не ждёт отрисовку
+public class SnapshotBuffer {
+    private final AtomicReference<WorldSnapshot> published = new AtomicReference<>(new WorldSnapshot());
+    private WorldSnapshot writing = new WorldSnapshot();
+    private WorldSnapshot reading = new WorldSnapshot();
+    private long nextSequence = 1;
+
+    // Писатель — тот, кто держит замок модели: поток симуляции или перезапуск матча
+    WorldSnapshot beginWrite() {
+        return writing;
+    }
+
+    // Готовый снимок уходит в published, взамен берётся старый на запись
+    void publish() {
+        writing.markPublished(nextSequence++, System.nanoTime());
+        writing = published.getAndSet(writing);
+    }
+
+    // Только поток отрисовки: последний опубликованный снимок, либо прежний, если новее нет
+    public WorldSnapshot acquireLatest() {
+        if (published.get().getSequence() > reading.getSequence()) {
+            reading = published.getAndSet(reading);
+        }
+        return reading;
+    }
+}
\ No newline at end of file
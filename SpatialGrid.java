@@ -0,0 +1,90 @@
+import java.util.Arrays;
+
+// Сетка по строкам EntityStore: в ячейках лежат номера записей, а не объекты
+public class SpatialGrid {
+    public static final int NOT_FOUND = -1;
+    private static final int EMPTY = NOT_FOUND;
+
+    private final int cellSize;
+    private final int maxObjectSize;
+    private int columns;
+    private int rows;
+    private int[] cellHeads = new int[0];
+    private int[] nextInCell = new int[0];
+    private EntityStore entities;
+
+    public SpatialGrid(int cellSize, int maxObjectSize) {
+        this.cellSize = cellSize;
+        this.maxObjectSize = maxObjectSize;
+    }
+
+    public void resize(int worldWidth, int worldHeight) {
+        if (columns == worldWidth / cellSize + 1 && rows == worldHeight / cellSize + 1) {
+            return;
+        }
+        columns = worldWidth / cellSize + 1;
+        rows = worldHeight / cellSize + 1;
+        cellHeads = new int[columns * rows];
+        Arrays.fill(cellHeads, EMPTY);
+    }
+
+    // Объект попадает в ячейку своего левого верхнего угла, поэтому
+    // запрос расширяется влево и вверх на размер самого крупного объекта
+    public void rebuild(EntityStore entities) {
+        this.entities = entities;
+        Arrays.fill(cellHeads, EMPTY);
+        ensureCapacity(entities.size());
+
+        for (int i = 0; i < entities.size(); i++) {
+            if (!entities.isAlive(i)) {
+                continue;
+            }
+            int cell = cellIndex(cellColumn(entities.getX(i)), cellRow(entities.getY(i)));
+            nextInCell[i] = cellHeads[cell];
+            cellHeads[cell] = i;
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        if (nextInCell.length < size) {
+            nextInCell = new int[Math.max(size, nextInCell.length * 2)];
+        }
+    }
+
+    // Номер первой по порядку живой записи, пересекающей область, или NOT_FOUND
+    public int findIntersecting(int x, int y, int width, int height) {
+        int firstColumn = cellColumn(x - maxObjectSize);
+        int lastColumn = cellColumn(x + width);
+        int firstRow = cellRow(y - maxObjectSize);
+        int lastRow = cellRow(y + height);
+        int found = EMPTY;
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                for (int i = cellHeads[cellIndex(column, row)]; i != EMPTY; i = nextInCell[i]) {
+                    // Берём наименьший индекс, чтобы порядок попаданий совпадал с обходом списка
+                    if ((found == EMPTY || i < found) && isAliveAndIntersecting(i, x, y, width, height)) {
+                        found = i;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private boolean isAliveAndIntersecting(int entity, int x, int y, int width, int height) {
+        return entities.isAlive(entity) && entities.intersects(entity, x, y, width, height);
+    }
+
+    private int cellColumn(int x) {
+        return Math.min(Math.max(x / cellSize, 0), columns - 1);
+    }
+
+    private int cellRow(int y) {
+        return Math.min(Math.max(y / cellSize, 0), rows - 1);
+    }
+
+    private int cellIndex(int column, int row) {
+        return row * columns + column;
+    }
+}
\ No newline at end of file
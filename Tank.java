@@ -1,103 +1,115 @@
 import java.awt.Color;
-import java.awt.Rectangle;
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
 
 public class Tank extends GameObject {
     public static final int SIZE = 40;
     private static final long SHOOT_COOLDOWN_MS = 600;
+    private static final long SHOOT_COOLDOWN_TICKS = SHOOT_COOLDOWN_MS * GameLoop.TICKS_PER_SECOND / 1000;
     private static final int AI_DIRECTION_CHANGE_PROBABILITY = 2;
     private static final int BULLET_OFFSET = 15;
-
-    private int direction;
-    private int health;
+    // x, y, предыдущие x и y, направление, здоровье, цвет, тик выстрела, флаги
+    static final int SAVED_BYTES = 4 * Integer.BYTES + 1 + Integer.BYTES + Integer.BYTES + Long.BYTES + 1;
+    private static final int PLAYER_FLAG = 1;
+    private static final int MOVING_FLAG = 2;
+    private static final int ALIVE_FLAG = 4;
+
+    // Положение, направление, здоровье, жизнь и сторона (владелец) — в строке хранилища танков,
+    // здесь только то, что нужно одному танку: цвет, перезарядка, движение и генератор ИИ
     private Color color;
-    private boolean isPlayer;
-    private long lastShotTime = 0;
+    private long lastShotTick = -SHOOT_COOLDOWN_TICKS - 1;
     private boolean isMovingForward = false;
+    private SplittableRandom random;
 
-    public Tank(int x, int y, int direction, Color color, boolean isPlayer, int initialHealth) {
-        super(x, y, SIZE, SIZE);
-        this.direction = direction;
+    public Tank(EntityStore tanks, int x, int y, int direction, Color color, boolean isPlayer, int initialHealth,
+                SplittableRandom random) {
+        super(tanks, tanks.add(x, y, direction, isPlayer ? EntityStore.OWNER_PLAYER : EntityStore.OWNER_ENEMY));
+        tanks.setHealth(index, initialHealth);
+        this.random = random;
         this.color = color;
-        this.isPlayer = isPlayer;
-        this.health = initialHealth;
         this.isMovingForward = !isPlayer;
     }
 
     @Override
     public void update() {
-        if (!isPlayer && Math.random() * 100 < AI_DIRECTION_CHANGE_PROBABILITY) {
+        if (!isPlayer() && random.nextDouble() * 100 < AI_DIRECTION_CHANGE_PROBABILITY) {
             changeRandomDirection();
         }
     }
 
-    private void changeRandomDirection() {
-        direction = (int) (Math.random() * 4);
+    public void changeRandomDirection() {
+        setDirection(random.nextInt(4));
     }
 
-    public Rectangle getFutureBounds(int movementStep) {
-        int futureX = x;
-        int futureY = y;
+    public int getFutureX(int movementStep) {
+        switch (getDirection()) {
+            case 1: return getX() + movementStep;
+            case 3: return getX() - movementStep;
+            default: return getX();
+        }
+    }
 
-        switch (direction) {
-            case 0: futureY -= movementStep; break;
-            case 1: futureX += movementStep; break;
-            case 2: futureY += movementStep; break;
-            case 3: futureX -= movementStep; break;
+    public int getFutureY(int movementStep) {
+        switch (getDirection()) {
+            case 0: return getY() - movementStep;
+            case 2: return getY() + movementStep;
+            default: return getY();
         }
-        return new Rectangle(futureX, futureY, SIZE, SIZE);
     }
 
     public void setPosition(int newX, int newY) {
-        this.x = newX;
-        this.y = newY;
+        store.setPosition(index, newX, newY);
     }
 
-    private boolean isShootCooldownPassed() {
-        return System.currentTimeMillis() - lastShotTime > SHOOT_COOLDOWN_MS;
+    // Перезарядка считается в тиках модели, а не по системным часам
+    private boolean isShootCooldownPassed(long currentTick) {
+        return currentTick - lastShotTick > SHOOT_COOLDOWN_TICKS;
     }
 
-    public boolean canShoot() { // Изменен модификатор доступа с private на public
-        return isShootCooldownPassed();
+    public boolean canShoot(long currentTick) { // Изменен модификатор доступа с private на public
+        return isShootCooldownPassed(currentTick);
     }
 
-    public Bullet shoot() {
-        if (!canShoot()) {
-            return null;
+    public boolean shoot(EntityStore bullets, long currentTick) {
+        if (!canShoot(currentTick)) {
+            return false;
         }
 
-        lastShotTime = System.currentTimeMillis();
-        int[] bulletPosition = calculateBulletStartPosition();
-
-        return new Bullet(bulletPosition[0], bulletPosition[1], direction, isPlayer);
+        lastShotTick = currentTick;
+        bullets.add(getBulletStartX(), getBulletStartY(), getDirection(), store.getOwner(index));
+        return true;
     }
 
-    private int[] calculateBulletStartPosition() {
-        int bulletX = x + SIZE / 2 - Bullet.SIZE / 2;
-        int bulletY = y + SIZE / 2 - Bullet.SIZE / 2;
+    private int getBulletStartX() {
+        int bulletX = getX() + SIZE / 2 - Bullet.SIZE / 2;
 
-        switch (direction) {
-            case 0: bulletY -= SIZE / 2 + BULLET_OFFSET; break;
-            case 1: bulletX += SIZE / 2 + BULLET_OFFSET; break;
-            case 2: bulletY += SIZE / 2 + BULLET_OFFSET; break;
-            case 3: bulletX -= SIZE / 2 + BULLET_OFFSET; break;
+        switch (getDirection()) {
+            case 1: return bulletX + SIZE / 2 + BULLET_OFFSET;
+            case 3: return bulletX - SIZE / 2 - BULLET_OFFSET;
+            default: return bulletX;
         }
+    }
+
+    private int getBulletStartY() {
+        int bulletY = getY() + SIZE / 2 - Bullet.SIZE / 2;
 
-        return new int[]{bulletX, bulletY};
+        switch (getDirection()) {
+            case 0: return bulletY - SIZE / 2 - BULLET_OFFSET;
+            case 2: return bulletY + SIZE / 2 + BULLET_OFFSET;
+            default: return bulletY;
+        }
     }
 
     public void takeDamage() {
-        health--;
-        if (health <= 0) {
-            isAlive = false;
-        }
+        store.damage(index);
     }
 
     public int getDirection() {
-        return direction;
+        return store.getDirection(index);
     }
 
     public void setDirection(int direction) {
-        this.direction = direction;
+        store.setDirection(index, direction);
     }
 
     public void setMoving(boolean moving) {
@@ -109,14 +121,52 @@ public class Tank extends GameObject {
     }
 
     public int getHealth() {
-        return health;
+        return store.getHealth(index);
     }
 
     public Color getColor() {
         return color;
     }
 
+    public SplittableRandom getRandom() {
+        return random;
+    }
+
     public boolean isPlayer() {
-        return isPlayer;
+        return store.getOwner(index) == EntityStore.OWNER_PLAYER;
+    }
+
+    // Сохранение матча. Генератор случайных чисел не сохраняется: его состояние не извлечь
+    void writeTo(ByteBuffer buffer) {
+        buffer.putInt(getX()).putInt(getY()).putInt(getPreviousX()).putInt(getPreviousY())
+                .put((byte) getDirection())
+                .putInt(getHealth())
+                .putInt(color.getRGB())
+                .putLong(lastShotTick)
+                .put((byte) ((isPlayer() ? PLAYER_FLAG : 0) | (isMovingForward ? MOVING_FLAG : 0)
+                        | (isAlive() ? ALIVE_FLAG : 0)));
+    }
+
+    // Танк добавляется строкой в конец tanks
+    static Tank readFrom(ByteBuffer buffer, EntityStore tanks, SplittableRandom random) {
+        int x = buffer.getInt();
+        int y = buffer.getInt();
+        int previousX = buffer.getInt();
+        int previousY = buffer.getInt();
+        int direction = buffer.get();
+        int health = buffer.getInt();
+        Color color = new Color(buffer.getInt(), true);
+        long lastShotTick = buffer.getLong();
+        int flags = buffer.get();
+        if (direction < 0 || direction > 3) {
+            throw new IllegalArgumentException("Неверное направление танка: " + direction);
+        }
+
+        Tank tank = new Tank(tanks, x, y, direction, color, (flags & PLAYER_FLAG) != 0, health, random);
+        tanks.setPreviousPosition(tank.index, previousX, previousY);
+        tank.lastShotTick = lastShotTick;
+        tank.isMovingForward = (flags & MOVING_FLAG) != 0;
+        tank.setAlive((flags & ALIVE_FLAG) != 0);
+        return tank;
     }
 }
\ No newline at end of file
@@ -0,0 +1,167 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+// Атлас заранее отрисованных спрайтов танков: по одному сглаженному изображению
+// на каждую пару (цвет, направление). Отрисовка танка в кадре — один drawImage
+public class TankSpriteCache {
+    // Запас вокруг корпуса под гусеницы и ствол при любом повороте
+    static final int SPRITE_MARGIN = 28;
+    static final int SPRITE_SIZE = Tank.SIZE + 2 * SPRITE_MARGIN;
+    private static final int TURRET_SIZE_OFFSET = 10;
+    private static final int BARREL_LENGTH_OFFSET = 15;
+    private static final int BARREL_STROKE_WIDTH = 8;
+    private static final int BARREL_TIP_STROKE_WIDTH = 10;
+
+    private final Map<Integer, BufferedImage[]> spritesByColor = new HashMap<>();
+
+    // Цвет передаётся как ARGB: снимок мира хранит танки примитивными столбцами
+    public void draw(Graphics2D g2d, int color, int direction, int x, int y) {
+        BufferedImage sprite = getSprite(g2d.getDeviceConfiguration(), color, direction);
+        g2d.drawImage(sprite, x - SPRITE_MARGIN, y - SPRITE_MARGIN, null);
+    }
+
+    private BufferedImage getSprite(GraphicsConfiguration configuration, int color, int direction) {
+        BufferedImage[] sprites = spritesByColor.computeIfAbsent(color, rgb -> new BufferedImage[4]);
+        if (sprites[direction] == null) {
+            sprites[direction] = renderSprite(configuration, new Color(color, true), direction);
+        }
+        return sprites[direction];
+    }
+
+    private BufferedImage renderSprite(GraphicsConfiguration configuration, Color color, int direction) {
+        BufferedImage sprite = configuration != null
+                ? configuration.createCompatibleImage(SPRITE_SIZE, SPRITE_SIZE, Transparency.TRANSLUCENT)
+                : new BufferedImage(SPRITE_SIZE, SPRITE_SIZE, BufferedImage.TYPE_INT_ARGB);
+
+        Graphics2D g2d = sprite.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.rotate(getRotationAngle(direction), SPRITE_SIZE / 2.0, SPRITE_SIZE / 2.0);
+        drawTankComponents(g2d, color, SPRITE_MARGIN, SPRITE_MARGIN);
+        g2d.dispose();
+        return sprite;
+    }
+
+    private double getRotationAngle(int direction) {
+        switch (direction) {
+            case 1: return Math.toRadians(90);
+            case 2: return Math.toRadians(180);
+            case 3: return Math.toRadians(270);
+            default: return 0;
+        }
+    }
+
+    private void drawTankComponents(Graphics2D g2d, Color tankColor, int x, int y) {
+        drawTracks(g2d, x, y);
+        drawHull(g2d, x, y, tankColor);
+        drawTurret(g2d, x, y, tankColor);
+        drawHatch(g2d, x, y);
+        drawBarrel(g2d, x, y);
+    }
+
+    private void drawTracks(Graphics2D g2d, int x, int y) {
+        g2d.setColor(new Color(50, 50, 50));
+        g2d.fillRect(x - 8, y, 10, Tank.SIZE);
+        g2d.fillRect(x + Tank.SIZE - 2, y, 10, Tank.SIZE);
+        drawWheels(g2d, x, y);
+    }
+
+    private void drawWheels(Graphics2D g2d, int x, int y) {
+        g2d.setColor(new Color(80, 80, 80));
+        for (int i = 0; i < 4; i++) {
+            g2d.fillOval(x - 5, y + 4 + i * 10, 4, 4);
+            g2d.fillOval(x + Tank.SIZE + 1, y + 4 + i * 10, 4, 4);
+        }
+    }
+
+    private void drawHull(Graphics2D g2d, int x, int y, Color tankColor) {
+        g2d.setColor(tankColor);
+        g2d.fillRect(x, y + 2, Tank.SIZE, Tank.SIZE - 4);
+
+        g2d.setColor(tankColor.brighter());
+        g2d.fillRect(x + 5, y + 5, Tank.SIZE - 10, Tank.SIZE - 10);
+
+        g2d.setColor(Color.BLACK);
+        g2d.drawRect(x, y + 2, Tank.SIZE, Tank.SIZE - 4);
+    }
+
+    private void drawTurret(Graphics2D g2d, int x, int y, Color tankColor) {
+        int turretSize = Tank.SIZE - TURRET_SIZE_OFFSET;
+        int turretX = x + 5;
+        int turretY = y + 5;
+
+        g2d.setColor(tankColor.brighter());
+        g2d.fillOval(turretX, turretY, turretSize, turretSize);
+
+        g2d.setColor(Color.BLACK);
+        g2d.drawOval(turretX, turretY, turretSize, turretSize);
+    }
+
+    private void drawHatch(Graphics2D g2d, int x, int y) {
+        int centerX = x + Tank.SIZE / 2;
+        int centerY = y + Tank.SIZE / 2;
+
+        g2d.setColor(new Color(30, 30, 30));
+        g2d.fillOval(centerX - 5, centerY - 5, 10, 10);
+    }
+
+    private void drawBarrel(Graphics2D g2d, int x, int y) {
+        int centerX = x + Tank.SIZE / 2;
+        int centerY = y + Tank.SIZE / 2;
+        int barrelLength = Tank.SIZE / 2 + BARREL_LENGTH_OFFSET;
+
+        drawBarrelMain(g2d, centerX, centerY, barrelLength);
+        drawBarrelTip(g2d, centerX, centerY, barrelLength);
+        resetStroke(g2d);
+    }
+
+    private void drawBarrelMain(Graphics2D g2d, int centerX, int centerY, int barrelLength) {
+        // Отрисовка ровного цилиндрического ствола с закруглёнными концами
+        int barrelWidth = BARREL_STROKE_WIDTH;
+
+        // Основная часть ствола
+        g2d.setColor(new Color(60, 60, 60)); // Тёмно-серый для ствола
+        g2d.setStroke(new BasicStroke(barrelWidth, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+
+        // Рисуем линию с закруглёнными концами
+        g2d.drawLine(centerX, centerY, centerX, centerY - barrelLength);
+
+        // Добавляем тень/градиент для объёма
+        g2d.setColor(new Color(80, 80, 80)); // Светлее для верхней части
+        g2d.setStroke(new BasicStroke(barrelWidth - 2, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        g2d.drawLine(centerX, centerY - 5, centerX, centerY - barrelLength + 5);
+    }
+
+    private void drawBarrelTip(Graphics2D g2d, int centerX, int centerY, int barrelLength) {
+        // Толстый кончик пушки (дульный тормоз/срез)
+        int tipWidth = BARREL_TIP_STROKE_WIDTH;
+        int tipLength = 8; // Длина кончика
+
+        g2d.setColor(new Color(40, 40, 40)); // Очень тёмный для кончика
+        g2d.setStroke(new BasicStroke(tipWidth, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER));
+
+        // Вертикальная линия кончика
+        g2d.drawLine(centerX, centerY - barrelLength, centerX, centerY - barrelLength - tipLength);
+
+        // Горизонтальные линии для объёмного эффекта (срез)
+        g2d.setStroke(new BasicStroke(3, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER));
+        g2d.setColor(new Color(30, 30, 30)); // Ещё темнее
+
+        // Верхняя горизонтальная линия (торцевая часть)
+        int tipY = centerY - barrelLength - tipLength / 2;
+        g2d.drawLine(centerX - tipWidth/2 + 1, tipY, centerX + tipWidth/2 - 1, tipY);
+
+        // Дополнительные детали для реалистичности
+        g2d.setColor(new Color(100, 100, 100)); // Светлые детали
+        g2d.setStroke(new BasicStroke(1.5f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER));
+
+        // Блеск на кончике
+        g2d.drawLine(centerX - tipWidth/4, centerY - barrelLength - 2,
+                centerX - tipWidth/4, centerY - barrelLength - tipLength + 2);
+    }
+
+    private void resetStroke(Graphics2D g2d) {
+        g2d.setStroke(new BasicStroke(1f));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,162 @@
+import java.nio.file.Path;
+
+// Неизменяемая тайловая карта: размеры, тема, слой стен и точки появления.
+// Встроенные карты генерируются по номеру, размеру и зерну, остальные читаются из файлов (TileMapFile)
+public class TileMap {
+    public static final int BUILT_IN_SUMMER = 1;
+    public static final int BUILT_IN_DESERT = 2;
+    // Процедурная арена (MapGenerator): раскладка определяется зерном матча
+    public static final int PROCEDURAL = 3;
+    // Номер карты, прочитанной из файла
+    public static final int FROM_FILE = 0;
+
+    private final String name;
+    private final GameModel.MapTheme theme;
+    private final int columns;
+    private final int rows;
+    // Стены по столбцам: тайл (column, row) — walls[column * rows + row], как в GameModel.map
+    private final boolean[] walls;
+    private final int playerSpawnColumn;
+    private final int playerSpawnRow;
+    // Пары (столбец, строка)
+    private final int[] enemySpawns;
+    private final int mapId;
+    private final Path source;
+
+    TileMap(String name, GameModel.MapTheme theme, int columns, int rows, boolean[] walls,
+            int playerSpawnColumn, int playerSpawnRow, int[] enemySpawns, int mapId, Path source) {
+        this.name = name;
+        this.theme = theme;
+        this.columns = columns;
+        this.rows = rows;
+        this.walls = walls;
+        this.playerSpawnColumn = playerSpawnColumn;
+        this.playerSpawnRow = playerSpawnRow;
+        this.enemySpawns = enemySpawns;
+        this.mapId = mapId;
+        this.source = source;
+    }
+
+    public static TileMap generate(int mapId, int columns, int rows, long seed) {
+        return mapId == PROCEDURAL ? MapGenerator.generate(columns, rows, seed) : generate(mapId, columns, rows);
+    }
+
+    // Прежние карты «Лето» и «Пустыня»: рамка из стен и узор, растянутый на весь размер
+    public static TileMap generate(int mapId, int columns, int rows) {
+        boolean[] walls = new boolean[columns * rows];
+        TileMap tileMap = new TileMap(mapId == BUILT_IN_DESERT ? "Пустыня" : "Лето",
+                mapId == BUILT_IN_DESERT ? GameModel.MapTheme.DESERT : GameModel.MapTheme.SUMMER,
+                columns, rows, walls, -1, -1, new int[0], mapId, null);
+        tileMap.placeBorders();
+        if (mapId == BUILT_IN_SUMMER) {
+            tileMap.setupSummerMap();
+        } else if (mapId == BUILT_IN_DESERT) {
+            tileMap.setupDesertMap();
+        }
+        return tileMap;
+    }
+
+    private void placeBorders() {
+        for (int x = 0; x < columns; x++) {
+            for (int y = 0; y < rows; y++) {
+                if (x == 0 || x == columns - 1 || y == 0 || y == rows - 1) {
+                    walls[x * rows + y] = true;
+                }
+            }
+        }
+    }
+
+    // Экранный узор летней карты повторяется по всей карте блоками SCREEN_MAP_COLUMNS × SCREEN_MAP_ROWS
+    private void setupSummerMap() {
+        for (int blockX = 0; blockX < columns; blockX += GameModel.SCREEN_MAP_COLUMNS) {
+            for (int blockY = 0; blockY < rows; blockY += GameModel.SCREEN_MAP_ROWS) {
+                placeSummerBlock(blockX, blockY);
+            }
+        }
+    }
+
+    private void placeSummerBlock(int blockX, int blockY) {
+        setWall(blockX + 5, blockY + 5); setWall(blockX + 6, blockY + 5);
+        setWall(blockX + 15, blockY + 5); setWall(blockX + 15, blockY + 6);
+        setWall(blockX + 10, blockY + 10); setWall(blockX + 11, blockY + 10); setWall(blockX + 12, blockY + 10);
+        setWall(blockX + 5, blockY + 12);
+        setWall(blockX + 18, blockY + 12); setWall(blockX + 19, blockY + 12);
+        setWall(blockX + 8, blockY + 3); setWall(blockX + 8, blockY + 4);
+        setWall(blockX + 3, blockY + 8); setWall(blockX + 3, blockY + 9);
+        setWall(blockX + 16, blockY + 15); setWall(blockX + 17, blockY + 15);
+    }
+
+    private void setupDesertMap() {
+        for (int x = 4; x < columns - 4; x += 4) {
+            for (int y = 3; y < rows - 3; y += 3) {
+                walls[x * rows + y] = true;
+            }
+        }
+        setWall(10, 8); setWall(11, 8); setWall(12, 8);
+    }
+
+    // Узор обрезается краем карты, если она меньше блока
+    private void setWall(int x, int y) {
+        if (x < columns && y < rows) {
+            walls[x * rows + y] = true;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public GameModel.MapTheme getTheme() {
+        return theme;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public boolean isWall(int column, int row) {
+        return walls[column * rows + row];
+    }
+
+    public boolean hasPlayerSpawn() {
+        return playerSpawnColumn >= 0;
+    }
+
+    public int getPlayerSpawnColumn() {
+        return playerSpawnColumn;
+    }
+
+    public int getPlayerSpawnRow() {
+        return playerSpawnRow;
+    }
+
+    public int getEnemySpawnCount() {
+        return enemySpawns.length / 2;
+    }
+
+    public int getEnemySpawnColumn(int index) {
+        return enemySpawns[index * 2];
+    }
+
+    public int getEnemySpawnRow(int index) {
+        return enemySpawns[index * 2 + 1];
+    }
+
+    public int getMapId() {
+        return mapId;
+    }
+
+    // Файл, из которого прочитана карта; null у встроенных
+    public Path getSource() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + columns + "×" + rows + ")";
+    }
+}
\ No newline at end of file
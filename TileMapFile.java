@@ -0,0 +1,164 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Файловый формат карты (.twmap):
+//   сигнатура "TWMP", версия (short), имя (short длина + UTF-8), тема (byte), столбцы и строки (int);
+//   число слоёв (byte), каждый слой — номер (byte) и по байту на тайл построчно;
+//   число точек появления (int), каждая — вид (byte: 0 игрок, 1 враг), столбец и строка (int).
+// Сейчас игра использует только слой стен; слои с незнакомыми номерами пропускаются.
+// Встроенные карты можно выгрузить как образец: java TileMapFile export каталог
+public final class TileMapFile {
+    public static final String EXTENSION = ".twmap";
+    static final int MAGIC = 0x54574D50; // "TWMP"
+    static final short VERSION = 1;
+    static final int LAYER_WALLS = 0;
+    static final int SPAWN_PLAYER = 0;
+    static final int SPAWN_ENEMY = 1;
+    private static final int MAX_TILES = GameModel.HUGE_MAP_TILES * GameModel.HUGE_MAP_TILES;
+
+    private TileMapFile() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || !"export".equals(args[0])) {
+            System.err.println("Использование: java TileMapFile export каталог");
+            System.exit(2);
+        }
+        Path directory = Paths.get(args[1]);
+        Files.createDirectories(directory);
+        write(TileMap.generate(TileMap.BUILT_IN_SUMMER, GameModel.SCREEN_MAP_COLUMNS, GameModel.SCREEN_MAP_ROWS),
+                directory.resolve("summer" + EXTENSION));
+        write(TileMap.generate(TileMap.BUILT_IN_DESERT, GameModel.SCREEN_MAP_COLUMNS, GameModel.SCREEN_MAP_ROWS),
+                directory.resolve("desert" + EXTENSION));
+        System.out.println("Карты выгружены в " + directory.toAbsolutePath());
+    }
+
+    public static TileMap read(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Файл карты слишком большой: " + path);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < Integer.BYTES + Short.BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("Файл не является картой: " + path);
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Версия карты " + version + " не поддерживается (ожидается " + VERSION + "): " + path);
+        }
+        try {
+            return parse(buffer, path);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            // У обрыва файла (BufferUnderflowException) сообщения нет
+            throw new IOException("Повреждённый файл карты: " + path
+                    + (e.getMessage() == null ? "" : " (" + e.getMessage() + ")"), e);
+        }
+    }
+
+    private static TileMap parse(ByteBuffer buffer, Path path) {
+        byte[] nameBytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(nameBytes);
+        String name = new String(nameBytes, StandardCharsets.UTF_8);
+        GameModel.MapTheme theme = GameModel.MapTheme.values()[buffer.get()];
+        int columns = buffer.getInt();
+        int rows = buffer.getInt();
+        if (columns < 3 || rows < 3 || (long) columns * rows > MAX_TILES) {
+            throw new IllegalArgumentException("неверный размер " + columns + "×" + rows);
+        }
+
+        boolean[] walls = null;
+        int layerCount = buffer.get();
+        for (int layer = 0; layer < layerCount; layer++) {
+            int layerId = buffer.get();
+            if (layerId != LAYER_WALLS) {
+                buffer.position(buffer.position() + columns * rows);
+                continue;
+            }
+            // В файле тайлы построчно, в карте — по столбцам
+            walls = new boolean[columns * rows];
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    walls[column * rows + row] = buffer.get() != 0;
+                }
+            }
+        }
+        if (walls == null) {
+            throw new IllegalArgumentException("нет слоя стен");
+        }
+
+        int playerColumn = -1;
+        int playerRow = -1;
+        int spawnCount = buffer.getInt();
+        if (spawnCount < 0 || spawnCount > buffer.remaining()) {
+            throw new IllegalArgumentException("неверное число точек появления " + spawnCount);
+        }
+        int[] enemySpawns = new int[spawnCount * 2];
+        int enemySpawnCount = 0;
+        for (int i = 0; i < spawnCount; i++) {
+            int kind = buffer.get();
+            int column = buffer.getInt();
+            int row = buffer.getInt();
+            if (column < 0 || column >= columns || row < 0 || row >= rows) {
+                throw new IllegalArgumentException("точка появления вне карты: " + column + ", " + row);
+            }
+            if (kind == SPAWN_PLAYER) {
+                playerColumn = column;
+                playerRow = row;
+            } else {
+                enemySpawns[enemySpawnCount * 2] = column;
+                enemySpawns[enemySpawnCount * 2 + 1] = row;
+                enemySpawnCount++;
+            }
+        }
+        int[] enemies = new int[enemySpawnCount * 2];
+        System.arraycopy(enemySpawns, 0, enemies, 0, enemies.length);
+
+        return new TileMap(name, theme, columns, rows, walls, playerColumn, playerRow, enemies,
+                TileMap.FROM_FILE, path);
+    }
+
+    public static void write(TileMap tileMap, Path path) throws IOException {
+        byte[] name = tileMap.getName().getBytes(StandardCharsets.UTF_8);
+        int columns = tileMap.getColumns();
+        int rows = tileMap.getRows();
+        int spawnCount = tileMap.getEnemySpawnCount() + (tileMap.hasPlayerSpawn() ? 1 : 0);
+        int spawnBytes = 1 + 2 * Integer.BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + Short.BYTES + Short.BYTES + name.length + 1
+                + 2 * Integer.BYTES + 1 + 1 + columns * rows + Integer.BYTES + spawnCount * spawnBytes);
+
+        buffer.putInt(MAGIC).putShort(VERSION)
+                .putShort((short) name.length).put(name)
+                .put((byte) tileMap.getTheme().ordinal())
+                .putInt(columns).putInt(rows);
+        buffer.put((byte) 1).put((byte) LAYER_WALLS);
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                buffer.put((byte) (tileMap.isWall(column, row) ? 1 : 0));
+            }
+        }
+        buffer.putInt(spawnCount);
+        if (tileMap.hasPlayerSpawn()) {
+            buffer.put((byte) SPAWN_PLAYER).putInt(tileMap.getPlayerSpawnColumn()).putInt(tileMap.getPlayerSpawnRow());
+        }
+        for (int i = 0; i < tileMap.getEnemySpawnCount(); i++) {
+            buffer.put((byte) SPAWN_ENEMY).putInt(tileMap.getEnemySpawnColumn(i)).putInt(tileMap.getEnemySpawnRow(i));
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
\ No newline at end of file
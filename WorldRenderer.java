@@ -0,0 +1,212 @@
+import java.awt.*;
+import java.util.HashMap;
+import java.util.Map;
+
+// Отрисовка мира из снимка в любой Graphics2D: панель, холст BufferStrategy или BufferedImage
+// в headless-режиме. Ничего не знает о Swing; кэши карты и спрайтов живут вместе с рендерером
+public class WorldRenderer {
+    static final int BULLET_BOUNDS_MARGIN = 3;
+    static final int BULLET_BOUNDS_SIZE = 12;
+    private static final Color[] PARTICLE_COLORS = createParticleColors();
+    private static final Color DARK_OVERLAY_COLOR = new Color(0, 0, 0, 200);
+    private static final Font END_MESSAGE_FONT = new Font("Arial", Font.BOLD, 80);
+    private static final Color SIMPLE_BARREL_COLOR = Color.DARK_GRAY;
+    private static final int SIMPLE_BARREL_WIDTH = 4;
+
+    private final MapLayerCache mapLayerCache = new MapLayerCache();
+    private final TankSpriteCache tankSprites = new TankSpriteCache();
+    private final Rectangle visibleArea = new Rectangle();
+    private final LevelOfDetail levelOfDetail = new LevelOfDetail();
+    private final Map<Integer, Color> simpleTankColors = new HashMap<>();
+    private long frameStart;
+    private long lastFrameNanos;
+
+    // Кадр целиком: видимая через камеру часть мира и затемнение в конце матча.
+    // Камера уже должна быть наведена, g2d — в экранных координатах
+    public void renderFrame(Graphics2D g2d, WorldSnapshot snapshot, double alpha, Camera camera) {
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        visibleArea.setBounds(camera.getX(), camera.getY(), camera.getViewportWidth(), camera.getViewportHeight());
+        beginFrame(snapshot, alpha, visibleArea);
+        g2d.translate(-camera.getX(), -camera.getY());
+        renderWorld(g2d, snapshot, alpha, visibleArea);
+        g2d.translate(camera.getX(), camera.getY());
+        renderGameOverlay(g2d, snapshot, camera.getViewportWidth(), camera.getViewportHeight());
+        endFrame();
+    }
+
+    // Кадр, нарисованный по частям (грязными областями), обрамляется beginFrame/endFrame:
+    // детализация выбирается по видимым объектам и времени прошлого кадра и не меняется внутри кадра.
+    // Возвращает true, если детализация сменилась — тогда старые пиксели объектов надо перерисовать
+    public boolean beginFrame(WorldSnapshot snapshot, double alpha, Rectangle area) {
+        frameStart = System.nanoTime();
+        return levelOfDetail.update(countVisibleEntities(snapshot, alpha, area), lastFrameNanos);
+    }
+
+    public void endFrame() {
+        lastFrameNanos = System.nanoTime() - frameStart;
+    }
+
+    public boolean isSimplified() {
+        return levelOfDetail.isSimplified();
+    }
+
+    private int countVisibleEntities(WorldSnapshot snapshot, double alpha, Rectangle area) {
+        int count = 0;
+        for (int i = 0; i < snapshot.getTankCount(); i++) {
+            if (touches(area, snapshot.getTankX(i, alpha), snapshot.getTankY(i, alpha), Tank.SIZE, Tank.SIZE)) {
+                count++;
+            }
+        }
+        for (int i = 0; i < snapshot.getBulletCount(); i++) {
+            if (touches(area, snapshot.getBulletX(i, alpha), snapshot.getBulletY(i, alpha), Bullet.SIZE, Bullet.SIZE)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Рисуются только тайлы и объекты, задевающие область area (в мировых координатах)
+    public void renderWorld(Graphics2D g2d, WorldSnapshot snapshot, double alpha, Rectangle area) {
+        mapLayerCache.draw(g2d, snapshot, area);
+        drawTanks(g2d, snapshot, alpha, area);
+        drawBullets(g2d, snapshot, alpha, area);
+        drawParticles(g2d, snapshot, area);
+    }
+
+    public void renderGameOverlay(Graphics2D g2d, WorldSnapshot snapshot, int width, int height) {
+        if (isGameOver(snapshot)) {
+            drawDarkOverlay(g2d, width, height);
+            drawEndMessage(g2d, snapshot.getState(), width, height);
+        }
+    }
+
+    public static boolean isGameOver(WorldSnapshot snapshot) {
+        GameModel.GameState state = snapshot.getState();
+        return state == GameModel.GameState.DEFEAT || state == GameModel.GameState.VICTORY;
+    }
+
+    static boolean touches(Rectangle area, int x, int y, int width, int height) {
+        return x < area.x + area.width && x + width > area.x
+                && y < area.y + area.height && y + height > area.y;
+    }
+
+    private void drawDarkOverlay(Graphics2D g2d, int width, int height) {
+        g2d.setColor(DARK_OVERLAY_COLOR);
+        g2d.fillRect(0, 0, width, height);
+    }
+
+    private void drawEndMessage(Graphics2D g2d, GameModel.GameState state, int width, int height) {
+        String message = (state == GameModel.GameState.VICTORY) ? "ПОБЕДА!" : "ИГРА ОКОНЧЕНА";
+        Color msgColor = (state == GameModel.GameState.VICTORY) ?
+                new Color(150, 255, 150) : new Color(255, 150, 150);
+
+        g2d.setColor(msgColor);
+        g2d.setFont(END_MESSAGE_FONT);
+        FontMetrics fm = g2d.getFontMetrics();
+        g2d.drawString(message, width / 2 - fm.stringWidth(message) / 2, height / 2 - 100);
+    }
+
+    // Игрок в снимке идёт первым, поэтому порядок отрисовки прежний: игрок под врагами
+    private void drawTanks(Graphics2D g2d, WorldSnapshot snapshot, double alpha, Rectangle area) {
+        boolean simplified = levelOfDetail.isSimplified();
+        for (int i = 0; i < snapshot.getTankCount(); i++) {
+            int x = snapshot.getTankX(i, alpha);
+            int y = snapshot.getTankY(i, alpha);
+            if (!touches(area, x - TankSpriteCache.SPRITE_MARGIN, y - TankSpriteCache.SPRITE_MARGIN,
+                    TankSpriteCache.SPRITE_SIZE, TankSpriteCache.SPRITE_SIZE)) {
+                continue;
+            }
+            if (simplified) {
+                drawSimpleTank(g2d, snapshot.getTankColor(i), snapshot.getTankDirection(i), x, y);
+            } else {
+                tankSprites.draw(g2d, snapshot.getTankColor(i), snapshot.getTankDirection(i), x, y);
+            }
+        }
+    }
+
+    // Упрощённый танк: залитый корпус и черта ствола от центра к краю в сторону направления
+    private void drawSimpleTank(Graphics2D g2d, int color, int direction, int x, int y) {
+        g2d.setColor(simpleTankColors.computeIfAbsent(color, argb -> new Color(argb, true)));
+        g2d.fillRect(x, y, Tank.SIZE, Tank.SIZE);
+
+        int center = Tank.SIZE / 2 - SIMPLE_BARREL_WIDTH / 2;
+        g2d.setColor(SIMPLE_BARREL_COLOR);
+        switch (direction) {
+            case 0: g2d.fillRect(x + center, y, SIMPLE_BARREL_WIDTH, Tank.SIZE / 2); break;
+            case 1: g2d.fillRect(x + Tank.SIZE / 2, y + center, Tank.SIZE / 2, SIMPLE_BARREL_WIDTH); break;
+            case 2: g2d.fillRect(x + center, y + Tank.SIZE / 2, SIMPLE_BARREL_WIDTH, Tank.SIZE / 2); break;
+            default: g2d.fillRect(x, y + center, Tank.SIZE / 2, SIMPLE_BARREL_WIDTH); break;
+        }
+    }
+
+    private void drawBullets(Graphics2D g2d, WorldSnapshot snapshot, double alpha, Rectangle area) {
+        if (levelOfDetail.isSimplified()) {
+            drawSimpleBullets(g2d, snapshot, alpha, area);
+            return;
+        }
+        for (int i = 0; i < snapshot.getBulletCount(); i++) {
+            drawBullet(g2d, snapshot.getBulletX(i, alpha), snapshot.getBulletY(i, alpha), area);
+        }
+    }
+
+    // Упрощённая пуля — один пиксель в центре, цвет ставится один раз на все пули
+    private void drawSimpleBullets(Graphics2D g2d, WorldSnapshot snapshot, double alpha, Rectangle area) {
+        g2d.setColor(Color.YELLOW);
+        for (int i = 0; i < snapshot.getBulletCount(); i++) {
+            int x = snapshot.getBulletX(i, alpha) + Bullet.SIZE / 2;
+            int y = snapshot.getBulletY(i, alpha) + Bullet.SIZE / 2;
+            if (touches(area, x, y, 1, 1)) {
+                g2d.fillRect(x, y, 1, 1);
+            }
+        }
+    }
+
+    private void drawBullet(Graphics2D g2d, int x, int y, Rectangle area) {
+        if (!touches(area, x - BULLET_BOUNDS_MARGIN, y - BULLET_BOUNDS_MARGIN, BULLET_BOUNDS_SIZE, BULLET_BOUNDS_SIZE)) {
+            return;
+        }
+
+        g2d.setColor(Color.ORANGE);
+        g2d.fillOval(x - 2, y - 2, 10, 10);
+        g2d.setColor(Color.YELLOW);
+        g2d.fillOval(x, y, 6, 6);
+    }
+
+    // Частицы в снимке уже сгруппированы по стилю: цвет ставится один раз на группу
+    private void drawParticles(Graphics2D g2d, WorldSnapshot snapshot, Rectangle area) {
+        for (int style = 0; style < ParticleSystem.STYLE_COUNT; style++) {
+            int end = snapshot.getStyleEnd(style);
+            if (snapshot.getStyleStart(style) == end) {
+                continue;
+            }
+            g2d.setColor(PARTICLE_COLORS[style]);
+            for (int i = snapshot.getStyleStart(style); i < end; i++) {
+                int size = snapshot.getParticleSize(i);
+                int x = snapshot.getParticleX(i) - size / 2;
+                int y = snapshot.getParticleY(i) - size / 2;
+                if (touches(area, x - 1, y - 1, size + 3, size + 3)) {
+                    g2d.fillOval(x, y, size, size);
+                }
+            }
+        }
+    }
+
+    // Цвет каждого типа частиц по ступеням затухания: от непрозрачного к почти прозрачному
+    private static Color[] createParticleColors() {
+        Color[] base = new Color[ParticleSystem.TYPE_COUNT];
+        base[ParticleSystem.TYPE_SMOKE] = new Color(90, 90, 90);
+        base[ParticleSystem.TYPE_FLASH] = new Color(255, 140, 0);
+        base[ParticleSystem.TYPE_DEBRIS] = new Color(200, 40, 20);
+        base[ParticleSystem.TYPE_SPARK] = Color.YELLOW;
+
+        Color[] colors = new Color[ParticleSystem.STYLE_COUNT];
+        for (int type = 0; type < ParticleSystem.TYPE_COUNT; type++) {
+            for (int fade = 0; fade < ParticleSystem.FADE_LEVELS; fade++) {
+                int alpha = 230 - fade * 200 / ParticleSystem.FADE_LEVELS;
+                colors[type * ParticleSystem.FADE_LEVELS + fade] = new Color(
+                        base[type].getRed(), base[type].getGreen(), base[type].getBlue(), alpha);
+            }
+        }
+        return colors;
+    }
+}
\ No newline at end of file
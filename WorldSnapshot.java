@@ -0,0 +1,300 @@
+import java.util.Arrays;
+
+// Неизменяемый для читателя снимок мира после тика: всё, что нужно для кадра, в примитивных столбцах.
+// Заполняется под замком модели, затем публикуется через SnapshotBuffer и больше не меняется,
+// пока отрисовка его держит. Массивы растут при нехватке и переиспользуются между тиками
+public class WorldSnapshot {
+    private long sequence;
+    private long publishTime;
+    private long tickNanos;
+    private long tick;
+    private GameModel.GameState state = GameModel.GameState.MENU;
+    private GameModel.MapTheme theme;
+    private int mapVersion = -1;
+    private int[][] map = new int[0][0];
+    private int worldWidth;
+    private int worldHeight;
+    private int score;
+
+    private boolean hasPlayer;
+    private int playerHealth;
+    private int playerX;
+    private int playerY;
+    private int playerPreviousX;
+    private int playerPreviousY;
+    private int enemyCount;
+
+    // Живые танки: игрок (если жив) первым, затем союзники и враги в порядке списков
+    private int tankCount;
+    private int[] tankX = new int[0];
+    private int[] tankY = new int[0];
+    private int[] tankPreviousX = new int[0];
+    private int[] tankPreviousY = new int[0];
+    private int[] tankDirection = new int[0];
+    private int[] tankColor = new int[0];
+
+    private int bulletCount;
+    private int[] bulletX = new int[0];
+    private int[] bulletY = new int[0];
+    private int[] bulletPreviousX = new int[0];
+    private int[] bulletPreviousY = new int[0];
+
+    // Живые частицы, сгруппированные по стилю: стиль s занимает [styleStart[s], styleStart[s + 1])
+    private int particleCount;
+    private int[] particleX = new int[0];
+    private int[] particleY = new int[0];
+    private int[] particleSize = new int[0];
+    private final int[] styleStart = new int[ParticleSystem.STYLE_COUNT + 1];
+
+    // Запись — только под замком модели, до публикации
+
+    void setWorld(long tick, GameModel.GameState state, GameModel.MapTheme theme, int mapVersion, int[][] map,
+                  int worldWidth, int worldHeight, int score, int enemyCount) {
+        this.tick = tick;
+        this.state = state;
+        this.theme = theme;
+        this.mapVersion = mapVersion;
+        this.map = map;
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.score = score;
+        this.enemyCount = enemyCount;
+        tankCount = 0;
+        bulletCount = 0;
+        particleCount = 0;
+        Arrays.fill(styleStart, 0);
+    }
+
+    void setPlayer(Tank player) {
+        hasPlayer = player != null;
+        if (hasPlayer) {
+            playerHealth = player.getHealth();
+            playerX = player.getX();
+            playerY = player.getY();
+            playerPreviousX = player.getPreviousX();
+            playerPreviousY = player.getPreviousY();
+        }
+    }
+
+    void setTickNanos(long tickNanos) {
+        this.tickNanos = tickNanos;
+    }
+
+    void markPublished(long sequence, long publishTime) {
+        this.sequence = sequence;
+        this.publishTime = publishTime;
+    }
+
+    void addTank(Tank tank) {
+        if (tankCount == tankX.length) {
+            int capacity = Math.max(16, tankCount * 2);
+            tankX = Arrays.copyOf(tankX, capacity);
+            tankY = Arrays.copyOf(tankY, capacity);
+            tankPreviousX = Arrays.copyOf(tankPreviousX, capacity);
+            tankPreviousY = Arrays.copyOf(tankPreviousY, capacity);
+            tankDirection = Arrays.copyOf(tankDirection, capacity);
+            tankColor = Arrays.copyOf(tankColor, capacity);
+        }
+        tankX[tankCount] = tank.getX();
+        tankY[tankCount] = tank.getY();
+        tankPreviousX[tankCount] = tank.getPreviousX();
+        tankPreviousY[tankCount] = tank.getPreviousY();
+        tankDirection[tankCount] = tank.getDirection();
+        tankColor[tankCount] = tank.getColor().getRGB();
+        tankCount++;
+    }
+
+    void addBullets(EntityStore bullets) {
+        int count = bullets.size();
+        if (count > bulletX.length) {
+            int capacity = Math.max(count, bulletX.length * 2);
+            bulletX = new int[capacity];
+            bulletY = new int[capacity];
+            bulletPreviousX = new int[capacity];
+            bulletPreviousY = new int[capacity];
+        }
+        bulletCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (!bullets.isAlive(i)) {
+                continue;
+            }
+            bulletX[bulletCount] = bullets.getX(i);
+            bulletY[bulletCount] = bullets.getY(i);
+            bulletPreviousX[bulletCount] = bullets.getPreviousX(i);
+            bulletPreviousY[bulletCount] = bullets.getPreviousY(i);
+            bulletCount++;
+        }
+    }
+
+    // Сортировка подсчётом по стилю: отрисовка ставит цвет один раз на группу
+    void addParticles(ParticleSystem particles) {
+        int count = particles.size();
+        if (count > particleX.length) {
+            int capacity = Math.max(count, particleX.length * 2);
+            particleX = new int[capacity];
+            particleY = new int[capacity];
+            particleSize = new int[capacity];
+        }
+        Arrays.fill(styleStart, 0);
+        for (int i = 0; i < count; i++) {
+            if (particles.isAlive(i)) {
+                styleStart[particles.getStyle(i) + 1]++;
+            }
+        }
+        for (int style = 0; style < ParticleSystem.STYLE_COUNT; style++) {
+            styleStart[style + 1] += styleStart[style];
+        }
+        particleCount = styleStart[ParticleSystem.STYLE_COUNT];
+        for (int i = 0; i < count; i++) {
+            if (!particles.isAlive(i)) {
+                continue;
+            }
+            int style = particles.getStyle(i);
+            int slot = styleStart[style]++;
+            particleX[slot] = particles.getX(i);
+            particleY[slot] = particles.getY(i);
+            particleSize[slot] = particles.getSize(i);
+        }
+        // После раскладки styleStart[s] указывает на конец группы s — сдвигаем обратно на начало
+        for (int style = ParticleSystem.STYLE_COUNT; style > 0; style--) {
+            styleStart[style] = styleStart[style - 1];
+        }
+        styleStart[0] = 0;
+    }
+
+    // Чтение
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    // Доля тика, прошедшая с публикации снимка, в диапазоне [0, 1]
+    public double getInterpolation(long now) {
+        return Math.min(Math.max((double) (now - publishTime) / GameLoop.TICK_NANOS, 0), 1);
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public GameModel.GameState getState() {
+        return state;
+    }
+
+    public GameModel.MapTheme getTheme() {
+        return theme;
+    }
+
+    public int getMapVersion() {
+        return mapVersion;
+    }
+
+    public int getMapColumns() {
+        return map.length;
+    }
+
+    public int getMapRows() {
+        return map.length == 0 ? 0 : map[0].length;
+    }
+
+    public boolean isWallTile(int column, int row) {
+        return map[column][row] == 1;
+    }
+
+    public int getWorldWidth() {
+        return worldWidth;
+    }
+
+    public int getWorldHeight() {
+        return worldHeight;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public boolean hasPlayer() {
+        return hasPlayer;
+    }
+
+    public int getPlayerHealth() {
+        return playerHealth;
+    }
+
+    public int getPlayerX(double alpha) {
+        return interpolate(playerPreviousX, playerX, alpha);
+    }
+
+    public int getPlayerY(double alpha) {
+        return interpolate(playerPreviousY, playerY, alpha);
+    }
+
+    public int getEnemyCount() {
+        return enemyCount;
+    }
+
+    public int getTankCount() {
+        return tankCount;
+    }
+
+    public int getTankX(int index, double alpha) {
+        return interpolate(tankPreviousX[index], tankX[index], alpha);
+    }
+
+    public int getTankY(int index, double alpha) {
+        return interpolate(tankPreviousY[index], tankY[index], alpha);
+    }
+
+    public int getTankDirection(int index) {
+        return tankDirection[index];
+    }
+
+    public int getTankColor(int index) {
+        return tankColor[index];
+    }
+
+    public int getBulletCount() {
+        return bulletCount;
+    }
+
+    public int getBulletX(int index, double alpha) {
+        return interpolate(bulletPreviousX[index], bulletX[index], alpha);
+    }
+
+    public int getBulletY(int index, double alpha) {
+        return interpolate(bulletPreviousY[index], bulletY[index], alpha);
+    }
+
+    public int getParticleCount() {
+        return particleCount;
+    }
+
+    public int getStyleStart(int style) {
+        return styleStart[style];
+    }
+
+    public int getStyleEnd(int style) {
+        return styleStart[style + 1];
+    }
+
+    public int getParticleX(int index) {
+        return particleX[index];
+    }
+
+    public int getParticleY(int index) {
+        return particleY[index];
+    }
+
+    public int getParticleSize(int index) {
+        return particleSize[index];
+    }
+
+    // Позиция между началом и концом тика: alpha 0 — прошлый тик, 1 — текущий
+    private int interpolate(int previous, int current, double alpha) {
+        return (int) Math.round(previous + (current - previous) * alpha);
+    }
+}
\ No newline at end of file
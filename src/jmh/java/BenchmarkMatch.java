@@ -0,0 +1,79 @@
+import bench.Match;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+// Матч с фиксированным зерном; после конца матча перезапускается тем же генератором,
+// так что последовательность состояний одинакова от запуска к запуску
+public class BenchmarkMatch implements Match {
+    private static final int MAX_REGULAR_ENEMY_COUNT = 50;
+
+    private final int enemyCount;
+    private final int mapId;
+    private final GameModel model;
+    private GameView view;
+    private BufferedImage image;
+
+    public BenchmarkMatch(int enemyCount, String theme, long seed) {
+        this.enemyCount = enemyCount;
+        this.mapId = GameModel.MapTheme.valueOf(theme) == GameModel.MapTheme.DESERT ? 2 : 1;
+        this.model = new GameModel(seed);
+        restart();
+    }
+
+    @Override
+    public void restartIfOver() {
+        if (model.getCurrentState() != GameModel.GameState.RUNNING) {
+            restart();
+        }
+    }
+
+    // Больше 50 врагов допускается только в режиме массового сражения
+    private void restart() {
+        model.initGame(enemyCount, mapId, enemyCount > MAX_REGULAR_ENEMY_COUNT);
+    }
+
+    @Override
+    public void updateGame() {
+        model.updateGame();
+    }
+
+    @Override
+    public void handleMovements() {
+        model.getLogicProcessor().handleMovements();
+    }
+
+    @Override
+    public void handleAIShooting() {
+        model.getLogicProcessor().handleAIShooting();
+    }
+
+    @Override
+    public void checkCollisions() {
+        model.getLogicProcessor().checkCollisions();
+    }
+
+    @Override
+    public void cleanupEntities() {
+        model.getLogicProcessor().cleanupEntities();
+    }
+
+    @Override
+    public void paint() {
+        if (view == null) {
+            view = new GameView(model, new GameController(model, null, new MapLibrary()));
+            view.stop();
+            view.setSize(view.getPreferredSize());
+            image = new BufferedImage(view.getWidth(), view.getHeight(), BufferedImage.TYPE_INT_RGB);
+        }
+        Graphics2D g2d = image.createGraphics();
+        view.updateFrameBuffer();
+        view.paintComponent(g2d);
+        g2d.dispose();
+    }
+
+    @Override
+    public long checksum() {
+        return model.getCurrentTick() * 31 + model.getScore() * 17L + model.getEnemies().size();
+    }
+}
\ No newline at end of file
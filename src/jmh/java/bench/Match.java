@@ -0,0 +1,37 @@
+package bench;
+
+// Мост к классам игры: они лежат в безымянном пакете, а JMH не принимает бенчмарки
+// без пакета. Реализация (BenchmarkMatch) создаётся один раз через рефлексию,
+// дальше вызовы идут напрямую через интерфейс
+public interface Match {
+    long SEED = 20_240_501L;
+
+    // Перезапуск тем же зерном, если матч закончился победой или поражением
+    void restartIfOver();
+
+    // Полный тик GameModel.updateGame()
+    void updateGame();
+
+    void handleMovements();
+
+    void handleAIShooting();
+
+    void checkCollisions();
+
+    void cleanupEntities();
+
+    // GameView.paintComponent в заранее созданное изображение
+    void paint();
+
+    long checksum();
+
+    static Match create(int enemyCount, String theme) {
+        try {
+            return (Match) Class.forName("BenchmarkMatch")
+                    .getDeclaredConstructor(int.class, String.class, long.class)
+                    .newInstance(enemyCount, theme, SEED);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Не удалось создать матч для бенчмарка", e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// GameView.paintComponent в offscreen-изображение. Перед каждым кадром мир продвигается на тик,
+// так что отрисовывается настоящий новый кадр, а не те же грязные области застывшей сцены
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PaintBenchmark {
+    @Param({"5", "50", "1000", "10000"})
+    private int enemyCount;
+
+    @Param({"SUMMER", "DESERT"})
+    private String theme;
+
+    private Match match;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        match = Match.create(enemyCount, theme);
+    }
+
+    @Setup(Level.Invocation)
+    public void advance() {
+        match.restartIfOver();
+        match.updateGame();
+    }
+
+    @Benchmark
+    public void paintComponent(Blackhole blackhole) {
+        match.paint();
+        blackhole.consume(match.checksum());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Полный тик симуляции на обеих встроенных картах
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+public class UpdateGameBenchmark {
+    @Param({"5", "50", "1000", "10000"})
+    private int enemyCount;
+
+    @Param({"SUMMER", "DESERT"})
+    private String theme;
+
+    private Match match;
+
+    @Setup
+    public void setUp() {
+        match = Match.create(enemyCount, theme);
+    }
+
+    @Benchmark
+    public void updateGame(Blackhole blackhole) {
+        match.restartIfOver();
+        match.updateGame();
+        blackhole.consume(match.checksum());
+    }
+}
\ No newline at end of file
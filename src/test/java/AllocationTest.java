@@ -0,0 +1,45 @@
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Регрессионная проверка: тик симуляции в установившемся режиме не должен выделять память
+class AllocationTest {
+    private static final int ENEMY_COUNT = 50;
+    private static final int WARMUP_TICKS = 20_000;
+    private static final int MEASURED_TICKS = 5_000;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @ParameterizedTest
+    @ValueSource(ints = {TileMap.BUILT_IN_SUMMER, TileMap.BUILT_IN_DESERT})
+    void steadyStateTickDoesNotAllocate(int mapId) {
+        GameModel model = new GameModel(1);
+        model.initGame(ENEMY_COUNT, mapId);
+
+        runTicks(model, mapId, WARMUP_TICKS);
+        long allocated = runTicks(model, mapId, MEASURED_TICKS);
+
+        assertEquals(0, allocated, () -> String.format("Выделено за %d тиков: %d байт (%.2f байт/тик)",
+                MEASURED_TICKS, allocated, (double) allocated / MEASURED_TICKS));
+    }
+
+    // Учитываются только сами тики: перезапуск матча после его окончания в замер не входит
+    private long runTicks(GameModel model, int mapId, int ticks) {
+        long allocated = 0;
+        for (int i = 0; i < ticks; i++) {
+            if (model.getCurrentState() != GameModel.GameState.RUNNING) {
+                model.initGame(ENEMY_COUNT, mapId);
+            }
+
+            long before = threads.getCurrentThreadAllocatedBytes();
+            model.playerShoot();
+            model.updateGame();
+            allocated += threads.getCurrentThreadAllocatedBytes() - before;
+        }
+        return allocated;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,29 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GameModelTest {
+    @Test
+    void playerDirectionOutsideRangeIsRejected() {
+        GameModel model = new GameModel(1);
+        model.initGame(5, TileMap.BUILT_IN_SUMMER);
+
+        assertThrows(IllegalArgumentException.class, () -> model.setPlayerDirection(4));
+        assertThrows(IllegalArgumentException.class, () -> model.setPlayerDirection(-2));
+    }
+
+    // Байт союзника с кодом направления 5..7 не меняет направление и не ломает выстрел
+    @Test
+    void allyInputWithBadDirectionKeepsDirection() {
+        GameModel model = new GameModel(1);
+        model.initGame(5, TileMap.BUILT_IN_SUMMER);
+        int ally = model.addAlly();
+        int direction = model.getAllies().get(ally).getDirection();
+
+        model.setAllyInput(ally, (byte) (0x07 | InputRecorder.SHOOT_BIT));
+        model.updateGame();
+
+        assertEquals(direction, model.getAllies().get(ally).getDirection());
+    }
+}
\ No newline at end of file
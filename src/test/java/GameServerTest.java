@@ -0,0 +1,91 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameServerTest {
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    private GameModel model;
+    private GameServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        model = new GameModel(1);
+        server = new GameServer(model, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                5, TileMap.BUILT_IN_SUMMER, false, GameModel.SCREEN_MAP_COLUMNS, GameModel.SCREEN_MAP_ROWS);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop();
+    }
+
+    // Код направления 5 (байт 0x15 — выстрел и направление 4) раньше ронял поток сервера
+    @Test
+    void badDirectionByteDropsOnlyThatClient() throws Exception {
+        try (SocketChannel player = connect(); SocketChannel ally = connect()) {
+            waitFor(() -> server.getClientCount() == 2);
+
+            ally.write(ByteBuffer.wrap(new byte[] {0x15}));
+            waitFor(() -> server.getClientCount() == 1);
+            assertTrue(isClosedByServer(ally));
+
+            long ticks = server.getTicks();
+            waitFor(() -> server.getTicks() > ticks + 10);
+            assertEquals(GameModel.GameState.RUNNING, model.getCurrentState());
+            assertFalse(isClosedByServer(player));
+        }
+    }
+
+    // Код 4 — последнее допустимое направление (влево), такой клиент остаётся в игре
+    @Test
+    void leftDirectionIsAccepted() throws Exception {
+        try (SocketChannel player = connect()) {
+            waitFor(() -> server.getClientCount() == 1);
+
+            player.write(ByteBuffer.wrap(new byte[] {(byte) (4 | InputRecorder.MOVING_BIT | InputRecorder.SHOOT_BIT)}));
+            long ticks = server.getTicks();
+            waitFor(() -> server.getTicks() > ticks + 10);
+            assertEquals(1, server.getClientCount());
+            assertEquals(3, model.getPlayerTank().getDirection());
+        }
+    }
+
+    private SocketChannel connect() throws IOException {
+        return SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()));
+    }
+
+    // Дочитывает всё, что успел прислать сервер; true, если он закрыл соединение
+    private static boolean isClosedByServer(SocketChannel channel) throws IOException {
+        channel.configureBlocking(false);
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long deadline = System.currentTimeMillis() + 200;
+        while (System.currentTimeMillis() < deadline) {
+            buffer.clear();
+            if (channel.read(buffer) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "не дождались условия");
+            Thread.sleep(10);
+        }
+    }
+}
\ No newline at end of file